@@ -0,0 +1,46 @@
+#!/bin/sh
+# Compares startup time and resident memory of the backend image variants.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Builds Dockerfile (JVM), Dockerfile.cds (JVM + AOT + AppCDS) and Dockerfile.native (GraalVM),
+# starts each image a number of times and reports the time Spring Boot reports for startup,
+# the wall-clock time until /actuator/health answers and the container's memory use at that point.
+set -eu
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-3}"
+PORT=18080
+
+wait_healthy() {
+    i=0
+    until curl -fs "http://localhost:$PORT/actuator/health" > /dev/null 2>&1; do
+        i=$((i + 1))
+        if [ "$i" -gt 1200 ]; then
+            echo "timed out" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+}
+
+printf '%-8s %-4s %14s %14s %12s\n' variant run started_s healthy_ms rss
+for variant in jvm cds native; do
+    case "$variant" in
+        jvm) dockerfile=Dockerfile ;;
+        *) dockerfile="Dockerfile.$variant" ;;
+    esac
+    docker build -q -f "$dockerfile" -t "lennuk-backend:$variant" . > /dev/null
+
+    run=1
+    while [ "$run" -le "$RUNS" ]; do
+        start=$(date +%s%3N)
+        container=$(docker run -d -p "$PORT:8080" -e BOOKING_JOURNAL_ENABLED=false "lennuk-backend:$variant")
+        wait_healthy
+        healthy=$(( $(date +%s%3N) - start ))
+        started=$(docker logs "$container" 2>&1 | sed -n 's/.*Started FlightBookingApplication in \([0-9.]*\) seconds.*/\1/p')
+        rss=$(docker stats --no-stream --format '{{.MemUsage}}' "$container" | cut -d/ -f1)
+        printf '%-8s %-4s %14s %14s %12s\n' "$variant" "$run" "$started" "$healthy" "$rss"
+        docker rm -f "$container" > /dev/null
+        run=$((run + 1))
+    done
+done
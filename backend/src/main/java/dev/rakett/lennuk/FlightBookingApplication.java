@@ -2,8 +2,10 @@ package dev.rakett.lennuk;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FlightBookingApplication {
     public static void main(String[] args) {
         SpringApplication.run(FlightBookingApplication.class, args);
@@ -0,0 +1,69 @@
+package dev.rakett.lennuk.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import dev.rakett.lennuk.dto.AmadeusFlightDestinationResponseDto;
+import dev.rakett.lennuk.dto.AmadeusOAuthResponseDto;
+import dev.rakett.lennuk.dto.BookingRequestDto;
+import dev.rakett.lennuk.dto.BookingResponseDto;
+import dev.rakett.lennuk.dto.BulkBookingRecordDto;
+import dev.rakett.lennuk.dto.BulkBookingReportDto;
+import dev.rakett.lennuk.dto.BulkBookingResultDto;
+import dev.rakett.lennuk.dto.CacheStatisticsDto;
+import dev.rakett.lennuk.dto.CheapestFareDto;
+import dev.rakett.lennuk.dto.FareCalendarDto;
+import dev.rakett.lennuk.dto.FlightDto;
+import dev.rakett.lennuk.dto.FlightExportDto;
+import dev.rakett.lennuk.dto.SeatMapResponseDto;
+import dev.rakett.lennuk.entity.BookedSeat;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.entity.OccupancyCounters;
+import dev.rakett.lennuk.exception.ErrorResponse;
+
+/**
+ * Reflection and resource hints for GraalVM native images.
+ *
+ * Spring AOT infers most hints itself, but not for types that are only bound by Jackson outside
+ * of controller signatures (the Amadeus responses, error bodies written by filters, the lines of
+ * the streamed flight export) or for the Lombok-generated accessors of the JPA entities. Binding
+ * hints cover nested types, so the Amadeus DTOs only need their top-level classes listed.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.Registrar.class)
+@RegisterReflectionForBinding({
+        AmadeusFlightDestinationResponseDto.class,
+        AmadeusOAuthResponseDto.class,
+        BookingRequestDto.class,
+        BookingResponseDto.class,
+        BulkBookingRecordDto.class,
+        BulkBookingReportDto.class,
+        BulkBookingResultDto.class,
+        CacheStatisticsDto.class,
+        CheapestFareDto.class,
+        FareCalendarDto.class,
+        FlightDto.class,
+        FlightExportDto.class,
+        SeatMapResponseDto.class,
+        ErrorResponse.class
+})
+public class NativeHintsConfig {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : new Class<?>[] { Flight.class, BookedSeat.class, OccupancyCounters.class }) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            // Caffeine JCache region configuration used by the l2cache profile
+            hints.resources().registerPattern("application.conf");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package dev.rakett.lennuk.controller;
+
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.CacheStatisticsDto;
+import dev.rakett.lennuk.dto.RecordingStatusDto;
+import dev.rakett.lennuk.dto.RequestTraceDto;
+import dev.rakett.lennuk.dto.SeatAnalyticsDto;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.exception.ConflictException;
+import dev.rakett.lennuk.monitoring.FlightRecorder;
+import dev.rakett.lennuk.monitoring.SlowRequestLog;
+import dev.rakett.lennuk.service.CacheStatisticsService;
+import dev.rakett.lennuk.service.SeatAnalyticsService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for operational endpoints used to inspect and manage a running node.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    public static final int MAX_ANALYTICS_LIMIT = 50;
+
+    private final CacheStatisticsService cacheStatisticsService;
+    private final SlowRequestLog slowRequestLog;
+    private final FlightRecorder flightRecorder;
+    private final SeatAnalyticsService seatAnalyticsService;
+
+    /**
+    * Retrieves second-level and query cache statistics.
+    *
+    * @return A ResponseEntity containing the cache statistics.
+    */
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStatisticsDto> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+
+    /**
+    * Evicts everything from the second-level and query caches.
+    *
+    * @return An empty ResponseEntity with status 204 No Content.
+    */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> evictCache() {
+        cacheStatisticsService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+    * Retrieves the sampled traces of recent slow requests, newest first.
+    *
+    * @return A ResponseEntity containing the request traces.
+    */
+    @GetMapping("/traces")
+    public ResponseEntity<List<RequestTraceDto>> getSlowRequestTraces() {
+        return ResponseEntity.ok(slowRequestLog.getTraces());
+    }
+
+    /**
+    * Clears the slow request traces.
+    *
+    * @return An empty ResponseEntity with status 204 No Content.
+    */
+    @DeleteMapping("/traces")
+    public ResponseEntity<Void> clearSlowRequestTraces() {
+        slowRequestLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+    * Retrieves the most requested preference combinations and most recommended seats and rows.
+    *
+    * @param limit Number of entries per table (default: 20, at most 50).
+    * @return A ResponseEntity containing the approximate frequencies.
+    * @throws BadRequestException If the limit is out of range.
+    */
+    @GetMapping("/seat-analytics")
+    public ResponseEntity<SeatAnalyticsDto> getSeatAnalytics(@RequestParam(defaultValue = "20") int limit) {
+        if (limit <= 0 || limit > MAX_ANALYTICS_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_ANALYTICS_LIMIT);
+        }
+        return ResponseEntity.ok(seatAnalyticsService.getAnalytics(limit));
+    }
+
+    /**
+    * Resets the seat analytics.
+    *
+    * @return An empty ResponseEntity with status 204 No Content.
+    */
+    @DeleteMapping("/seat-analytics")
+    public ResponseEntity<Void> resetSeatAnalytics() {
+        seatAnalyticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+    * Retrieves the status of the flight recording.
+    *
+    * @return A ResponseEntity containing the recording status.
+    */
+    @GetMapping("/recording")
+    public ResponseEntity<RecordingStatusDto> getRecording() {
+        return ResponseEntity.ok(flightRecorder.getStatus());
+    }
+
+    /**
+    * Starts a Java Flight Recorder recording.
+    *
+    * @param settings The JFR settings to use (default: "default", or "profile" for more detail).
+    * @return A ResponseEntity containing the recording status.
+    * @throws BadRequestException If the settings are unknown.
+    * @throws ConflictException   If a recording is already running.
+    */
+    @PostMapping("/recording")
+    public ResponseEntity<RecordingStatusDto> startRecording(
+            @RequestParam(defaultValue = "default") String settings) {
+        return ResponseEntity.ok(flightRecorder.start(settings));
+    }
+
+    /**
+    * Writes the running recording to a local file without stopping it.
+    *
+    * @return A ResponseEntity containing the recording status with the written file.
+    * @throws ConflictException If no recording is running.
+    */
+    @PostMapping("/recording/dump")
+    public ResponseEntity<RecordingStatusDto> dumpRecording() {
+        return ResponseEntity.ok(flightRecorder.dump());
+    }
+
+    /**
+    * Stops the running recording and writes it to a local file.
+    *
+    * @return A ResponseEntity containing the recording status with the written file.
+    * @throws ConflictException If no recording is running.
+    */
+    @DeleteMapping("/recording")
+    public ResponseEntity<RecordingStatusDto> stopRecording() {
+        return ResponseEntity.ok(flightRecorder.stop());
+    }
+}
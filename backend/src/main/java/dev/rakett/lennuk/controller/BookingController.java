@@ -0,0 +1,35 @@
+package dev.rakett.lennuk.controller;
+
+import java.io.IOException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.BulkBookingReportDto;
+import dev.rakett.lennuk.service.BulkBookingService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for bookings submitted by partner systems.
+ */
+@RestController
+@RequestMapping("/api/bookings")
+@RequiredArgsConstructor
+public class BookingController {
+
+    private final BulkBookingService bulkBookingService;
+
+    /**
+    * Books seats in bulk from a newline-delimited JSON body, one booking record per line
+    * ({"reference", "flightId", "customerId", "seatNumbers", "returnSeatNumbers"}). The body is read as it arrives.
+    *
+    * @param request The HTTP request whose body contains the booking records.
+    * @return A ResponseEntity containing the accept or reject outcome of every record.
+    * @throws IOException If the request body cannot be read.
+    */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkBookingReportDto> bookInBulk(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkBookingService.ingest(request.getInputStream()));
+    }
+}
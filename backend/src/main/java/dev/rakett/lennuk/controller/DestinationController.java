@@ -0,0 +1,46 @@
+package dev.rakett.lennuk.controller;
+
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.DestinationSuggestionDto;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.service.DestinationSuggestService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for looking up airports served by the stored flights.
+ */
+@RestController
+@RequestMapping("/api/destinations")
+@RequiredArgsConstructor
+public class DestinationController {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final DestinationSuggestService destinationSuggestService;
+
+    /**
+    * Suggests airports whose IATA code or detailed name starts with the query.
+    *
+    * @param q     The typed prefix, e.g. "FIUM" or "CPH".
+    * @param limit Number of suggestions to return (default: 10, at most 50).
+    * @return A ResponseEntity containing the suggestions, cheapest fare first.
+    * @throws BadRequestException If the query is blank or the limit is out of range.
+    */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<DestinationSuggestionDto>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (q.isBlank()) {
+            throw new BadRequestException("Query must not be blank");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(destinationSuggestService.suggest(q, limit));
+    }
+}
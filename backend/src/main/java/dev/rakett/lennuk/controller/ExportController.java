@@ -0,0 +1,39 @@
+package dev.rakett.lennuk.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import dev.rakett.lennuk.service.ExportService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for bulk exports used by analytics.
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    /**
+    * Streams all flights with their occupancy as newline-delimited JSON, one flight per line.
+    *
+    * @param bitmap Whether to include each flight's booked seat bitmap (default: false).
+    * @return A ResponseEntity streaming the export.
+    */
+    @GetMapping("/flights")
+    public ResponseEntity<StreamingResponseBody> exportFlights(
+            @RequestParam(defaultValue = "false") boolean bitmap) {
+        StreamingResponseBody body = out -> exportService.exportFlights(out, bitmap);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,76 @@
+package dev.rakett.lennuk.controller;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.CheapestFareDto;
+import dev.rakett.lennuk.dto.FareCalendarDto;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.service.FareCalendarService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for browsing fares: the cheapest fare per day and the cheapest destinations.
+ */
+@RestController
+@RequestMapping("/api/fares")
+@RequiredArgsConstructor
+public class FareController {
+
+    public static final int MAX_LIMIT = 100;
+
+    private final FareCalendarService fareCalendarService;
+
+    /**
+    * Retrieves the lowest fare per departure day.
+    *
+    * @param origin      Origin airport or city code (default: LON).
+    * @param destination (Optional) Destination code.
+    * @param month       (Optional) Month of departure in yyyy-MM format.
+    * @return A ResponseEntity containing one fare calendar per destination.
+    * @throws BadRequestException If the month cannot be parsed.
+    */
+    @GetMapping("/calendar")
+    public ResponseEntity<List<FareCalendarDto>> getCalendar(
+            @RequestParam(defaultValue = "LON") String origin,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) String month) {
+        return ResponseEntity.ok(fareCalendarService.getCalendar(origin, destination, parseMonth(month)));
+    }
+
+    /**
+    * Retrieves the cheapest destinations, cheapest first.
+    *
+    * @param origin Origin airport or city code (default: LON).
+    * @param month  (Optional) Month of departure in yyyy-MM format.
+    * @param limit  Number of destinations to return (default: 10, at most 100).
+    * @return A ResponseEntity containing the cheapest fares.
+    * @throws BadRequestException If the month cannot be parsed or the limit is out of range.
+    */
+    @GetMapping("/cheapest")
+    public ResponseEntity<List<CheapestFareDto>> getCheapest(
+            @RequestParam(defaultValue = "LON") String origin,
+            @RequestParam(required = false) String month,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(fareCalendarService.getCheapest(origin, parseMonth(month), limit));
+    }
+
+    private YearMonth parseMonth(String month) {
+        if (month == null) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Month must be in yyyy-MM format");
+        }
+    }
+}
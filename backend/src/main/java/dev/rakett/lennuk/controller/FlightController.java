@@ -1,21 +1,27 @@
 package dev.rakett.lennuk.controller;
 
 import java.util.List;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.BookingRequestDto;
+import dev.rakett.lennuk.dto.BookingResponseDto;
 import dev.rakett.lennuk.dto.FlightDto;
 import dev.rakett.lennuk.dto.SeatMapResponseDto;
-import dev.rakett.lennuk.entity.Flight;
 import dev.rakett.lennuk.exception.BadRequestException;
 import dev.rakett.lennuk.exception.ResourceNotFoundException;
 import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.service.BookingService;
 import dev.rakett.lennuk.service.FlightService;
-import dev.rakett.lennuk.service.SeatService;
-import jakarta.annotation.PostConstruct;
+import dev.rakett.lennuk.service.SeatMapService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -26,41 +32,58 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class FlightController {
 
+    // Largest party the seat recommender will place in a single request
+    public static final int MAX_SEATS_PER_REQUEST = SeatPreference.MAX_NUMBER_OF_SEATS;
+
     private final FlightService flightService;
-    private final SeatService seatService;
+    private final BookingService bookingService;
+    private final SeatMapService seatMapService;
 
     /**
-    * Initializes flight data.
+    * Initializes flight data once the application is ready, so that every
+    * inventory listener receives the initial refresh.
     */
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
     public void initialize() {
         flightService.initializeFlights();
     }
 
     /**
-    * Retrieves a list of available flights originating from the default location.
+    * Retrieves a list of available flights, optionally filtered by origin, destination
+    * and departure date. City codes such as LON match every airport of the city.
     *
+    * @param origin        (Optional) Origin airport or city code.
+    * @param destination   (Optional) Destination airport or city code.
+    * @param departureDate (Optional) Departure date in yyyy-MM-dd format.
     * @return A ResponseEntity containing a list of FlightDto objects.
     */
     @GetMapping("/flights")
-    public ResponseEntity<List<FlightDto>> getFlights() {
-        return ResponseEntity.ok(flightService.getFlights());
+    public ResponseEntity<List<FlightDto>> getFlights(
+            @RequestParam(required = false) String origin,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) String departureDate) {
+        if (origin == null && destination == null && departureDate == null) {
+            return ResponseEntity.ok(flightService.getFlights());
+        }
+        return ResponseEntity.ok(flightService.findFlights(origin, destination, departureDate));
     }
 
     /**
     * Retrieves a seat map for a given flight with recommendations based on preferences.
+    * Round trips also get the seat map of the return leg, recommending the same seats on both
+    * legs where possible.
     * If the flight is not found, a 404 Not Found response is returned.
-    * If an invalid number of seats is requested (e.g., less than or equal to zero/more than two),
+    * If an invalid number of seats is requested (e.g., less than or equal to zero/more than nine),
     * a 400 Bad Request exception is thrown.
     *
     * @param id                    The ID of the flight.
     * @param windowSeat            (Optional) Preference for a window seat.
     * @param extraLegroom          (Optional) Preference for extra legroom.
     * @param exitRowProximity      (Optional) Preference for proximity to an exit row.
-    * @param numSeats              The number of seats required (default: 1, must be greater than zero).
+    * @param numSeats              The number of seats required (default: 1, must be between one and nine).
     * @param seatsTogetherRequired Whether the seats need to be together (default: false).
     * @return A ResponseEntity containing a SeatMapResponseDto with seat recommendations.
-    * @throws BadRequestException  If the number of requested seats is not greater than zero or more than two.
+    * @throws BadRequestException  If the number of requested seats is not greater than zero or more than nine.
     * @throws ResourceNotFoundException If the specified flight is not found.
     */
     @GetMapping("/flights/{id}/seats")
@@ -71,13 +94,11 @@ public class FlightController {
             @RequestParam(required = false) Boolean exitRowProximity,
             @RequestParam(defaultValue = "1") int numSeats,
             @RequestParam(defaultValue = "false") boolean seatsTogetherRequired) {
-        if (numSeats <= 0 || numSeats > 2) {
-            throw new BadRequestException("Number of seats must be greater than zero and less than or equal to two");
+        if (numSeats <= 0 || numSeats > MAX_SEATS_PER_REQUEST) {
+            throw new BadRequestException(
+                    "Number of seats must be greater than zero and less than or equal to " + MAX_SEATS_PER_REQUEST);
         }
 
-        Flight flight = flightService.getFlightById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Flight", "ID", id));
-
         SeatPreference preferences = SeatPreference.builder()
                 .windowSeat(Boolean.TRUE.equals(windowSeat))
                 .extraLegroom(Boolean.TRUE.equals(extraLegroom))
@@ -86,7 +107,27 @@ public class FlightController {
                 .seatsTogetherRequired(seatsTogetherRequired)
                 .build();
 
-        SeatMapResponseDto seats = seatService.getSeatMapWithRecommendations(flight, preferences);
+        SeatMapResponseDto seats = seatMapService.getSeatMap(id, preferences);
         return ResponseEntity.ok(seats);
     }
+
+    /**
+    * Books seats on a flight. The booking is confirmed once it is durable.
+    * Each customer can book at most nine tickets per flight. Public callers are identified by their
+    * address, as resolved from the proxy's forwarded headers, since any ID they send could be forged.
+    *
+    * @param id          The ID of the flight.
+    * @param request     The seats to book on the outbound leg, the return leg, or both.
+    * @param httpRequest The request, whose client address the tickets are counted against.
+    * @return A ResponseEntity containing the booking confirmation.
+    * @throws BadRequestException       If the request is empty, too large or names invalid seats.
+    * @throws ResourceNotFoundException If the specified flight is not found.
+    */
+    @PostMapping("/flights/{id}/bookings")
+    public ResponseEntity<BookingResponseDto> bookSeats(
+            @PathVariable Long id,
+            @RequestBody BookingRequestDto request,
+            HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(bookingService.bookSeats(id, httpRequest.getRemoteAddr(), request));
+    }
 }
\ No newline at end of file
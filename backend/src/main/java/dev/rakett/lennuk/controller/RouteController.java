@@ -0,0 +1,67 @@
+package dev.rakett.lennuk.controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import dev.rakett.lennuk.dto.RouteDto;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.service.RouteService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for searching itineraries, including connections over intermediate airports.
+ */
+@RestController
+@RequestMapping("/api/routes")
+@RequiredArgsConstructor
+public class RouteController {
+
+    public static final int MAX_LIMIT = 20;
+    public static final int MAX_LAYOVER_DAYS = 3;
+
+    private final RouteService routeService;
+
+    /**
+    * Finds the cheapest itineraries between two airports or cities.
+    *
+    * @param origin         Origin airport or city code (default: LON).
+    * @param destination    Destination airport or city code.
+    * @param date           Departure date of the first leg in yyyy-MM-dd format.
+    * @param maxLegs        Maximum number of legs (default: 3, at most 4).
+    * @param maxLayoverDays Maximum days between consecutive legs (default: 1, at most 3).
+    * @param limit          Number of itineraries to return (default: 5, at most 20).
+    * @return A ResponseEntity containing the itineraries, cheapest first.
+    * @throws BadRequestException If the date cannot be parsed or a bound is out of range.
+    */
+    @GetMapping
+    public ResponseEntity<List<RouteDto>> findRoutes(
+            @RequestParam(defaultValue = "LON") String origin,
+            @RequestParam String destination,
+            @RequestParam String date,
+            @RequestParam(defaultValue = "3") int maxLegs,
+            @RequestParam(defaultValue = "1") int maxLayoverDays,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (maxLegs < 1 || maxLegs > RouteService.MAX_LEGS) {
+            throw new BadRequestException("Max legs must be between 1 and " + RouteService.MAX_LEGS);
+        }
+        if (maxLayoverDays < 0 || maxLayoverDays > MAX_LAYOVER_DAYS) {
+            throw new BadRequestException("Max layover days must be between 0 and " + MAX_LAYOVER_DAYS);
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDate departureDate;
+        try {
+            departureDate = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Date must be in yyyy-MM-dd format");
+        }
+        return ResponseEntity.ok(
+                routeService.findRoutes(origin, destination, departureDate, maxLegs, maxLayoverDays, limit));
+    }
+}
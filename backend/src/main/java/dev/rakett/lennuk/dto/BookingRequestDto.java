@@ -0,0 +1,15 @@
+package dev.rakett.lennuk.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingRequestDto {
+    private List<String> seatNumbers;
+    // Seats on the return leg of a round trip; may be empty
+    private List<String> returnSeatNumbers;
+}
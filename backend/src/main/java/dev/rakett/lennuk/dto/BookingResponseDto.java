@@ -0,0 +1,18 @@
+package dev.rakett.lennuk.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingResponseDto {
+    private Long flightId;
+    private List<String> seatNumbers;
+    private List<String> returnSeatNumbers;
+    private String status;
+}
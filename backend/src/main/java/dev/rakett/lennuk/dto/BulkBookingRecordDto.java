@@ -0,0 +1,17 @@
+package dev.rakett.lennuk.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkBookingRecordDto {
+    private String reference;
+    private Long flightId;
+    private String customerId;
+    private List<String> seatNumbers;
+    private List<String> returnSeatNumbers;
+}
@@ -0,0 +1,20 @@
+package dev.rakett.lennuk.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkBookingReportDto {
+    private long received;
+    private long accepted;
+    private long rejected;
+    private long bookedSeats;
+    private long durationMs;
+    private List<BulkBookingResultDto> results;
+}
@@ -0,0 +1,18 @@
+package dev.rakett.lennuk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkBookingResultDto {
+    private long line;
+    private String reference;
+    private Long flightId;
+    private String status;
+    private String reason;
+}
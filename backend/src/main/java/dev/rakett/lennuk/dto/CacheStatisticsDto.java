@@ -0,0 +1,34 @@
+package dev.rakett.lennuk.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatisticsDto {
+    private boolean secondLevelCacheEnabled;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long queryCacheHitCount;
+    private long queryCacheMissCount;
+    private long databaseQueryCount;
+    private List<RegionStatistics> regions;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RegionStatistics {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCount;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.rakett.lennuk.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheapestFareDto {
+    private String destination;
+    private String destinationDetailedName;
+    private String departureDate;
+    private BigDecimal price;
+}
@@ -0,0 +1,27 @@
+package dev.rakett.lennuk.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FareCalendarDto {
+    private String origin;
+    private String destination;
+    private String destinationDetailedName;
+    private List<DayFare> days;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DayFare {
+        private String date;
+        private BigDecimal price;
+    }
+}
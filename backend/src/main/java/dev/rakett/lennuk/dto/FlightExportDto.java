@@ -0,0 +1,40 @@
+package dev.rakett.lennuk.dto;
+
+import java.math.BigDecimal;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightExportDto {
+    private Long id;
+    private String origin;
+    private String destination;
+    private String departureDate;
+    private String returnDate;
+    private BigDecimal basePrice;
+    private String seatLayout;
+    private int rows;
+    private int seatsPerRow;
+    private int totalSeats;
+    private int bookedSeats;
+    private int bookedWindowSeats;
+    private int bookedExtraLegroomSeats;
+    private int bookedExitRowSeats;
+    private double loadFactor;
+    // Occupancy of the return leg, for round trips
+    private int returnBookedSeats;
+    private double returnLoadFactor;
+
+    // Base64 of the row-major booked seat bitmap, one bit per seat, lowest bit first
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String occupancyBitmap;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String returnOccupancyBitmap;
+}
@@ -0,0 +1,18 @@
+package dev.rakett.lennuk.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecordingStatusDto {
+    private boolean running;
+    private String settings;
+    private Instant startTime;
+    private String lastDump;
+}
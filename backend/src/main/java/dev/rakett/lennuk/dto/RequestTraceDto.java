@@ -0,0 +1,30 @@
+package dev.rakett.lennuk.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RequestTraceDto {
+    private Instant timestamp;
+    private String method;
+    private String uri;
+    private int status;
+    private double totalMs;
+    private List<PhaseTiming> phases;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PhaseTiming {
+        private String name;
+        private double durationMs;
+    }
+}
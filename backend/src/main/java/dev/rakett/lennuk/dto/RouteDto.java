@@ -0,0 +1,22 @@
+package dev.rakett.lennuk.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RouteDto {
+    private String origin;
+    private String destination;
+    private String departureDate;
+    private String lastDepartureDate;
+    private int stops;
+    private BigDecimal totalPrice;
+    private List<FlightDto> legs;
+}
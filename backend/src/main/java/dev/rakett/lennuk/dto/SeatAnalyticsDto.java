@@ -0,0 +1,39 @@
+package dev.rakett.lennuk.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatAnalyticsDto {
+    private Instant since;
+    private FrequencyTable preferences;
+    private FrequencyTable recommendedSeats;
+    private FrequencyTable recommendedRows;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FrequencyTable {
+        private long total;
+        // Counts overcount by at most this much, with high probability
+        private long maxOvercount;
+        private List<Frequency> top;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Frequency {
+        private String key;
+        private long count;
+    }
+}
@@ -14,16 +14,26 @@ import lombok.NoArgsConstructor;
 public class SeatMapResponseDto {
     private List<SeatInfo> data;
 
+    // Seat map of the return leg, for flights that have one
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SeatInfo> returnData;
+
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private String errorMessage;
 
     public SeatMapResponseDto(List<SeatInfo> data) {
+        this(data, null);
+    }
+
+    public SeatMapResponseDto(List<SeatInfo> data, List<SeatInfo> returnData) {
         this.data = data;
+        this.returnData = returnData;
         this.errorMessage = null;
     }
 
     public SeatMapResponseDto(String errorMessage) {
         this.data = null;
+        this.returnData = null;
         this.errorMessage = errorMessage;
     }
 }
\ No newline at end of file
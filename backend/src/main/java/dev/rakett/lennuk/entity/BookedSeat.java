@@ -1,25 +1,40 @@
 package dev.rakett.lennuk.entity;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.EqualsAndHashCode;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import dev.rakett.lennuk.model.Leg;
 
 @Entity
-@Table(name = "booked_seats")
+// The constraint catches instances of a cluster booking the same seat at the same time
+@Table(name = "booked_seats", uniqueConstraints = @UniqueConstraint(name = "uk_booked_seats_flight_leg_seat",
+        columnNames = { "flight_id", "leg", "seat_number" }))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
-@EqualsAndHashCode(of = { "id", "seatNumber" })
+@EqualsAndHashCode(of = { "id", "seatNumber", "leg" })
 public class BookedSeat {
+    public static final int MAX_CUSTOMER_ID_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,4 +45,12 @@ public class BookedSeat {
     private Flight flight;
 
     private String seatNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Leg leg = Leg.OUTBOUND;
+
+    // Null for seats seeded without a customer, such as generated occupancy
+    @Column(length = MAX_CUSTOMER_ID_LENGTH)
+    private String customerId;
 }
\ No newline at end of file
@@ -4,13 +4,23 @@ import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.EqualsAndHashCode;
@@ -20,7 +30,12 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "flights")
+@Table(name = "flights", indexes = {
+        @Index(name = "idx_flights_origin", columnList = "origin"),
+        @Index(name = "idx_flights_destination_departure", columnList = "destination, departureDate")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,23 +57,92 @@ public class Flight {
     private Integer seatsPerRow;
     private String seatLayout;
 
+    // Booked seats of both legs, told apart by BookedSeat.leg, so one fetch loads both
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "flight", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<BookedSeat> bookedSeats = new HashSet<>();
 
+    @Embedded
+    private OccupancyCounters occupancy = new OccupancyCounters();
+
+    @Embedded
+    @AttributeOverride(name = "bookedCount", column = @Column(name = "return_booked_count"))
+    @AttributeOverride(name = "bookedWindowCount", column = @Column(name = "return_booked_window_count"))
+    @AttributeOverride(name = "bookedExtraLegroomCount", column = @Column(name = "return_booked_extra_legroom_count"))
+    @AttributeOverride(name = "bookedExitRowCount", column = @Column(name = "return_booked_exit_row_count"))
+    private OccupancyCounters returnOccupancy = new OccupancyCounters();
+
     public void addBookedSeat(String seatNumber) {
+        addBookedSeat(seatNumber, Leg.OUTBOUND);
+    }
+
+    public void addBookedSeat(String seatNumber, Leg leg) {
+        addBookedSeat(seatNumber, leg, null);
+    }
+
+    public void addBookedSeat(String seatNumber, Leg leg, String customerId) {
         BookedSeat seat = new BookedSeat();
         seat.setSeatNumber(seatNumber);
+        seat.setLeg(leg);
+        seat.setCustomerId(customerId);
         seat.setFlight(this);
-        bookedSeats.add(seat);
+        if (bookedSeats.add(seat)) {
+            recordOccupancy(seatNumber, leg, 1);
+        }
     }
 
-    public boolean isSeatBooked(String seatNumber) {
+    public boolean isSeatBooked(String seatNumber, Leg leg) {
         return bookedSeats.stream()
-                .anyMatch(seat -> seat.getSeatNumber().equals(seatNumber));
+                .anyMatch(seat -> seat.getLeg() == leg && seat.getSeatNumber().equals(seatNumber));
     }
 
     public void clearBookedSeats() {
         bookedSeats.clear();
+        occupancy.reset();
+        getReturnOccupancy().reset();
+    }
+
+    /**
+     * Returns true if the flight is a round trip, with a return leg that has its own seats.
+     */
+    public boolean hasReturnLeg() {
+        return returnDate != null;
+    }
+
+    public OccupancyCounters getOccupancy(Leg leg) {
+        return leg == Leg.RETURN ? getReturnOccupancy() : occupancy;
+    }
+
+    public String getDepartureDate(Leg leg) {
+        return leg == Leg.RETURN ? returnDate : departureDate;
+    }
+
+    public OccupancyCounters getReturnOccupancy() {
+        // Hibernate leaves an embeddable null when all of its columns are null
+        if (returnOccupancy == null) {
+            returnOccupancy = new OccupancyCounters();
+        }
+        return returnOccupancy;
+    }
+
+    /**
+     * Returns the cabin layout of this flight, falling back to the default dimensions.
+     */
+    public SeatLayout getLayout() {
+        return SeatLayout.of(
+                seatLayout != null ? seatLayout : SeatLayout.DEFAULT_LAYOUT,
+                rows != null ? rows : SeatLayout.DEFAULT_ROWS,
+                seatsPerRow != null ? seatsPerRow : SeatLayout.DEFAULT_SEATS_PER_ROW);
+    }
+
+    private void recordOccupancy(String seatNumber, Leg leg, int delta) {
+        SeatLayout layout = getLayout();
+        int row = SeatLayout.rowOf(seatNumber);
+        getOccupancy(leg).record(
+                layout.isWindow(SeatLayout.columnOf(seatNumber)),
+                layout.isExtraLegroom(row),
+                layout.isExitRow(row),
+                delta);
     }
 }
\ No newline at end of file
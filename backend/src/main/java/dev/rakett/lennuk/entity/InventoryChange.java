@@ -0,0 +1,33 @@
+package dev.rakett.lennuk.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A change to a flight's inventory, written in the same transaction as the change itself.
+ * The ID increases monotonically and serves as the cluster-wide change version.
+ */
+@Entity
+@Table(name = "inventory_changes", indexes = {
+        @Index(name = "idx_inventory_changes_created_at", columnList = "createdAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long flightId;
+    private String nodeId;
+    private Instant createdAt;
+}
@@ -0,0 +1,44 @@
+package dev.rakett.lennuk.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Booked seat counters of a flight, kept up to date on every booking change so that
+ * load factor and per-attribute availability never require scanning the booked seats.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+public class OccupancyCounters {
+    private int bookedCount;
+    private int bookedWindowCount;
+    private int bookedExtraLegroomCount;
+    private int bookedExitRowCount;
+
+    /**
+    * Records a seat being booked (delta 1) or released (delta -1).
+    *
+    * @param window        Whether the seat is a window seat.
+    * @param extraLegroom  Whether the seat has extra legroom.
+    * @param exitRow       Whether the seat is in an exit row.
+    * @param delta         The change in booked seats.
+    */
+    public void record(boolean window, boolean extraLegroom, boolean exitRow, int delta) {
+        bookedCount += delta;
+        if (window)
+            bookedWindowCount += delta;
+        if (extraLegroom)
+            bookedExtraLegroomCount += delta;
+        if (exitRow)
+            bookedExitRowCount += delta;
+    }
+
+    public void reset() {
+        bookedCount = 0;
+        bookedWindowCount = 0;
+        bookedExtraLegroomCount = 0;
+        bookedExitRowCount = 0;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.rakett.lennuk.event;
+
+import java.util.List;
+
+import dev.rakett.lennuk.dto.FlightDto;
+
+/**
+ * Published whenever the inventory is loaded. Occupancy changes of single flights are published
+ * as {@link OccupancyChangedEvent} instead.
+ *
+ * @param flights The complete inventory, replacing all previously published flights.
+ */
+public record InventoryRefreshedEvent(List<FlightDto> flights) {
+}
@@ -0,0 +1,12 @@
+package dev.rakett.lennuk.event;
+
+import java.util.Collection;
+
+/**
+ * Published whenever seats are booked on flights, either as pending reservations or when
+ * bookings are written to the database.
+ *
+ * @param flightIds The IDs of the flights whose occupancy changed.
+ */
+public record OccupancyChangedEvent(Collection<Long> flightIds) {
+}
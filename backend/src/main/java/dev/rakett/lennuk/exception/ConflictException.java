@@ -0,0 +1,7 @@
+package dev.rakett.lennuk.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,167 @@
+package dev.rakett.lennuk.filter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.rakett.lennuk.exception.ErrorResponse;
+import dev.rakett.lennuk.util.AimdLimiter;
+import dev.rakett.lennuk.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control for the seat endpoints (seat maps and bookings).
+ *
+ * Each client first needs a token from its own token bucket, then a slot from the shared
+ * adaptive concurrency limit. Requests that get neither are rejected with 429 and a
+ * Retry-After header before they tie up a Tomcat thread or a database connection.
+ *
+ * Published metrics: admission.limit and admission.in-flight gauges, admission.requests
+ * counters tagged by outcome and the admission.latency timer of accepted requests.
+ */
+@Component
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Pattern SEAT_ENDPOINT = Pattern.compile("/api/flights/[^/]+/(seats|bookings)");
+    private static final long CLIENT_IDLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final boolean enabled;
+    private final AimdLimiter limiter;
+    private final double clientBurst;
+    private final double clientRatePerSecond;
+    private final int limitRetryAfterSeconds;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    private final Counter accepted;
+    private final Counter rejectedByLimit;
+    private final Counter rejectedByQuota;
+    private final Timer latency;
+
+    public AdmissionControlFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.initial-limit:20}") int initialLimit,
+            @Value("${admission.min-limit:4}") int minLimit,
+            @Value("${admission.max-limit:200}") int maxLimit,
+            @Value("${admission.latency-target-ms:250}") long latencyTargetMs,
+            @Value("${admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${admission.retry-after-seconds:1}") int limitRetryAfterSeconds,
+            @Value("${admission.client.burst:20}") double clientBurst,
+            @Value("${admission.client.rate-per-second:10}") double clientRatePerSecond) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.limiter = new AimdLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyTargetMs), backoffRatio);
+        this.limitRetryAfterSeconds = limitRetryAfterSeconds;
+        this.clientBurst = clientBurst;
+        this.clientRatePerSecond = clientRatePerSecond;
+
+        Gauge.builder("admission.limit", limiter, AimdLimiter::getLimit)
+                .description("Current adaptive concurrency limit of the seat endpoints")
+                .register(meterRegistry);
+        Gauge.builder("admission.in-flight", limiter, AimdLimiter::getInFlight)
+                .description("Requests currently being served by the seat endpoints")
+                .register(meterRegistry);
+        Gauge.builder("admission.clients", clientBuckets, Map::size)
+                .description("Clients with an active token bucket")
+                .register(meterRegistry);
+        this.accepted = outcomeCounter(meterRegistry, "accepted");
+        this.rejectedByLimit = outcomeCounter(meterRegistry, "rejected_limit");
+        this.rejectedByQuota = outcomeCounter(meterRegistry, "rejected_quota");
+        this.latency = Timer.builder("admission.latency")
+                .description("Latency of accepted seat endpoint requests")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !SEAT_ENDPOINT.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long quotaWaitNanos = clientBuckets
+                .computeIfAbsent(request.getRemoteAddr(), client -> new TokenBucket(clientBurst, clientRatePerSecond, now))
+                .tryConsume(now);
+        if (quotaWaitNanos > 0) {
+            rejectedByQuota.increment();
+            reject(request, response, toRetryAfterSeconds(quotaWaitNanos), "Too many requests from this client");
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            rejectedByLimit.increment();
+            reject(request, response, limitRetryAfterSeconds, "Server is busy, please try again shortly");
+            return;
+        }
+
+        accepted.increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            limiter.release(elapsed);
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+    * Drops token buckets of clients that have not made a request for a while.
+    */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isIdle(now, CLIENT_IDLE_NANOS));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds,
+            String message) throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponse errorResponse = new ErrorResponse(
+                status.value(),
+                message,
+                "uri=" + request.getRequestURI(),
+                LocalDateTime.now());
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("admission.requests")
+                .description("Seat endpoint requests by admission outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.rakett.lennuk.filter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import dev.rakett.lennuk.dto.RequestTraceDto;
+import dev.rakett.lennuk.monitoring.RequestTracing;
+import dev.rakett.lennuk.monitoring.SlowRequestLog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Times the phases of sampled API requests and reports them in a Server-Timing header.
+ * Sampled requests slower than the threshold are kept in the {@link SlowRequestLog}.
+ *
+ * The response body of a sampled request is buffered, so the header can still be set after
+ * serialization. Requests that are not sampled pass through untouched, as do streaming exports.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    private static final String SERVER_TIMING = "Server-Timing";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final SlowRequestLog slowRequestLog;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public ServerTimingFilter(
+            SlowRequestLog slowRequestLog,
+            @Value("${tracing.sample-rate:0.05}") double sampleRate,
+            @Value("${tracing.slow-threshold-ms:200}") long slowThresholdMs) {
+        this.slowRequestLog = slowRequestLog;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return sampleRate <= 0
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().startsWith("/api/admin/")
+                || request.getRequestURI().startsWith("/api/export/")
+                || ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        RequestTracing.Trace trace = RequestTracing.start();
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            RequestTracing.stop();
+            long totalNanos = trace.finish();
+            wrapper.setHeader(SERVER_TIMING, serverTiming(trace, totalNanos));
+            wrapper.copyBodyToResponse();
+            if (totalNanos >= slowThresholdNanos) {
+                slowRequestLog.add(toDto(request, wrapper.getStatus(), trace, totalNanos));
+            }
+        }
+    }
+
+    private static String serverTiming(RequestTracing.Trace trace, long totalNanos) {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < trace.size(); i++) {
+            appendMetric(header, trace.name(i), trace.durationNanos(i));
+            header.append(", ");
+        }
+        appendMetric(header, "total", totalNanos);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI));
+    }
+
+    private static RequestTraceDto toDto(HttpServletRequest request, int status, RequestTracing.Trace trace,
+            long totalNanos) {
+        List<RequestTraceDto.PhaseTiming> phases = new ArrayList<>(trace.size());
+        for (int i = 0; i < trace.size(); i++) {
+            phases.add(new RequestTraceDto.PhaseTiming(trace.name(i), trace.durationNanos(i) / NANOS_PER_MILLI));
+        }
+        String query = request.getQueryString();
+        return RequestTraceDto.builder()
+                .timestamp(Instant.now())
+                .method(request.getMethod())
+                .uri(query != null ? request.getRequestURI() + "?" + query : request.getRequestURI())
+                .status(status)
+                .totalMs(totalNanos / NANOS_PER_MILLI)
+                .phases(phases)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package dev.rakett.lennuk.filter;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import dev.rakett.lennuk.monitoring.RequestTracing;
+
+/**
+ * Marks the start of response serialization in traced requests, so the time spent in Jackson
+ * shows up as its own Server-Timing phase.
+ */
+@ControllerAdvice
+public class TracingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return RequestTracing.isActive();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        RequestTracing.mark("serialize");
+        return body;
+    }
+}
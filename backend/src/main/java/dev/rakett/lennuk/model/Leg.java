@@ -0,0 +1,10 @@
+package dev.rakett.lennuk.model;
+
+/**
+ * A leg of a round trip. Each leg has its own seat occupancy; one-way flights only have
+ * an outbound leg.
+ */
+public enum Leg {
+    OUTBOUND,
+    RETURN
+}
@@ -1,5 +1,6 @@
 package dev.rakett.lennuk.model;
 
+import java.math.BigDecimal;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -18,4 +19,5 @@ public class SeatInfo {
     private boolean isExtraLegroom;
     private boolean isBooked;
     private int recommendationScore;
+    private BigDecimal price;
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package dev.rakett.lennuk.model;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * Describes the cabin geometry of a flight, derived from its seat layout string (e.g. "3-3").
+ * Columns and rows are 1-based, matching the seat numbers shown to users ("1A" is row 1, column 1).
+ */
+public class SeatLayout {
+    public static final String DEFAULT_LAYOUT = "3-3";
+    public static final int DEFAULT_ROWS = 15;
+    public static final int DEFAULT_SEATS_PER_ROW = 6;
+
+    @Getter
+    private final int rows;
+    @Getter
+    private final int seatsPerRow;
+    // aisleAfter[c] is true when an aisle separates column c and column c + 1
+    private final boolean[] aisleAfter;
+
+    private SeatLayout(int rows, int seatsPerRow, boolean[] aisleAfter) {
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.aisleAfter = aisleAfter;
+    }
+
+    /**
+    * Parses a seat layout such as "3-3" or "3-4-3". If the layout is missing or does not
+    * add up to the number of seats per row, a single aisle in the middle of the row is assumed.
+    *
+    * @param layout      The layout string, with block sizes separated by dashes.
+    * @param rows        The number of rows on the aircraft.
+    * @param seatsPerRow The number of seats in each row.
+    * @return The parsed SeatLayout.
+    */
+    public static SeatLayout of(String layout, int rows, int seatsPerRow) {
+        boolean[] aisleAfter = new boolean[seatsPerRow + 1];
+        int[] blocks = parseBlocks(layout);
+        if (blocks != null && Arrays.stream(blocks).sum() == seatsPerRow) {
+            int column = 0;
+            for (int i = 0; i < blocks.length - 1; i++) {
+                column += blocks[i];
+                aisleAfter[column] = true;
+            }
+        } else if (seatsPerRow > 1) {
+            aisleAfter[seatsPerRow / 2] = true;
+        }
+        return new SeatLayout(rows, seatsPerRow, aisleAfter);
+    }
+
+    private static int[] parseBlocks(String layout) {
+        if (layout == null || layout.isBlank()) {
+            return null;
+        }
+        try {
+            return Arrays.stream(layout.split("-"))
+                    .mapToInt(block -> Integer.parseInt(block.trim()))
+                    .toArray();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isWindow(int column) {
+        return column == 1 || column == seatsPerRow;
+    }
+
+    public boolean isAisle(int column) {
+        return aisleAfter[column] || (column > 1 && aisleAfter[column - 1]);
+    }
+
+    /**
+     * Returns true if an aisle separates the given column from the next one.
+     */
+    public boolean hasAisleAfter(int column) {
+        return column >= 1 && column < seatsPerRow && aisleAfter[column];
+    }
+
+    public boolean isExitRow(int row) {
+        return row <= 2 || row >= rows - 1;
+    }
+
+    public boolean isExtraLegroom(int row) {
+        return row == 1;
+    }
+
+    public int getTotalSeats() {
+        return rows * seatsPerRow;
+    }
+
+    public int countWindowSeats() {
+        return seatsPerRow > 1 ? rows * 2 : rows;
+    }
+
+    public int countExtraLegroomSeats() {
+        int count = 0;
+        for (int row = 1; row <= rows; row++) {
+            if (isExtraLegroom(row)) {
+                count += seatsPerRow;
+            }
+        }
+        return count;
+    }
+
+    public int countExitRowSeats() {
+        int count = 0;
+        for (int row = 1; row <= rows; row++) {
+            if (isExitRow(row)) {
+                count += seatsPerRow;
+            }
+        }
+        return count;
+    }
+
+    public String seatNumber(int row, int column) {
+        return String.valueOf(row) + (char) ('A' + column - 1);
+    }
+
+    /**
+     * Returns the row-major index of a seat (e.g., "2B" -> 7 in a 3-3 cabin),
+     * or -1 if the seat does not exist in this layout.
+     */
+    public int indexOf(String seatNumber) {
+        try {
+            int row = rowOf(seatNumber);
+            int column = columnOf(seatNumber);
+            if (row < 1 || row > rows || column < 1 || column > seatsPerRow) {
+                return -1;
+            }
+            return (row - 1) * seatsPerRow + (column - 1);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Extracts the row number from a seat number (e.g., "10A" -> 10).
+     */
+    public static int rowOf(String seatNumber) {
+        return Integer.parseInt(seatNumber.substring(0, seatNumber.length() - 1));
+    }
+
+    /**
+     * Extracts the 1-based column from a seat number (e.g., "10C" -> 3).
+     */
+    public static int columnOf(String seatNumber) {
+        return seatNumber.charAt(seatNumber.length() - 1) - 'A' + 1;
+    }
+}
@@ -12,12 +12,31 @@ public class SeatPreference {
     private boolean seatsTogetherRequired;
     private int numberOfSeats;
 
+    // Largest party that can be seated or booked in a single request
+    public static final int MAX_NUMBER_OF_SEATS = 9;
+
     // Assumptions have been made as to the importantance of preferences
     // In a real project we might let user decide the importance of said preferences. 
     public static final int WINDOW_WEIGHT = 10;
     public static final int LEGROOM_WEIGHT = 15;
     public static final int EXIT_ROW_WEIGHT = 12;
 
+    /**
+     * Returns the enabled preferences as a compact label (e.g., "window+legroom"), or "none".
+     */
+    public String describe() {
+        StringBuilder label = new StringBuilder();
+        if (windowSeat)
+            label.append("window+");
+        if (extraLegroom)
+            label.append("legroom+");
+        if (exitRowProximity)
+            label.append("exit+");
+        if (seatsTogetherRequired)
+            label.append("together+");
+        return label.isEmpty() ? "none" : label.substring(0, label.length() - 1);
+    }
+
     public int calculateScore(boolean isWindow, boolean hasExtraLegroom, boolean isExitRow) {
         int score = 0;
         if (windowSeat && isWindow)
@@ -0,0 +1,31 @@
+package dev.rakett.lennuk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for an HTTP call to the Amadeus API.
+ */
+@Name("dev.rakett.lennuk.AmadeusCall")
+@Label("Amadeus Call")
+@Category({ "Lennuk", "Amadeus" })
+@StackTrace(false)
+public class AmadeusCallEvent extends Event {
+    public static final String TOKEN = "token";
+    public static final String FLIGHT_DESTINATIONS = "flight-destinations";
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("HTTP Status")
+    public int status;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
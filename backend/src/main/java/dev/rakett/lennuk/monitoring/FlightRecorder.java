@@ -0,0 +1,188 @@
+package dev.rakett.lennuk.monitoring;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.dto.RecordingStatusDto;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.exception.ConflictException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controls an in-process Java Flight Recorder recording, so a live node can be profiled
+ * without a restart or an attached agent. Recordings include the application's custom events
+ * (seat maps, recommendations, Amadeus calls and inventory phases) alongside the JVM's own.
+ *
+ * Recordings keep at most maxAge of data on disk and are dumped into the recording directory,
+ * which keeps only the newest jfr.max-files dumps.
+ * With jfr.continuous enabled a recording is started when the application is ready.
+ */
+@Component
+@Slf4j
+public class FlightRecorder {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String FILE_PREFIX = "lennuk-";
+    private static final String FILE_SUFFIX = ".jfr";
+
+    private final Path directory;
+    private final Duration maxAge;
+    private final boolean continuous;
+    private final int maxFiles;
+    private Recording recording;
+    private String settings;
+    private Path lastDump;
+
+    public FlightRecorder(
+            @Value("${jfr.dir:data/recordings}") String directory,
+            @Value("${jfr.max-age-minutes:30}") long maxAgeMinutes,
+            @Value("${jfr.continuous:false}") boolean continuous,
+            @Value("${jfr.max-files:10}") int maxFiles) {
+        this.directory = Paths.get(directory);
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.continuous = continuous;
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startContinuous() {
+        if (continuous) {
+            start("default");
+        }
+    }
+
+    /**
+    * Starts a recording.
+    *
+    * @param settings The JFR settings to record with: "default" (low overhead) or "profile".
+    * @return The status of the started recording.
+    * @throws BadRequestException If the settings are unknown.
+    * @throws ConflictException   If a recording is already running.
+    */
+    public synchronized RecordingStatusDto start(String settings) {
+        if (isRunning()) {
+            throw new ConflictException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new BadRequestException("Unknown recording settings: " + settings);
+        }
+        recording = new Recording(configuration);
+        recording.setName("lennuk");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.start();
+        this.settings = settings;
+        log.info("Started flight recording with {} settings", settings);
+        return getStatus();
+    }
+
+    /**
+    * Writes the data recorded so far to a new file, keeping the recording running.
+    *
+    * @return The status of the recording, including the written file.
+    * @throws ConflictException If no recording is running.
+    */
+    public synchronized RecordingStatusDto dump() {
+        if (!isRunning()) {
+            throw new ConflictException("No recording is running");
+        }
+        writeDump();
+        return getStatus();
+    }
+
+    /**
+    * Stops the recording, writing its data to a new file first.
+    *
+    * @return The status after stopping, including the written file.
+    * @throws ConflictException If no recording is running.
+    */
+    public synchronized RecordingStatusDto stop() {
+        if (!isRunning()) {
+            throw new ConflictException("No recording is running");
+        }
+        try {
+            writeDump();
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        log.info("Stopped flight recording");
+        return getStatus();
+    }
+
+    public synchronized RecordingStatusDto getStatus() {
+        boolean running = isRunning();
+        return RecordingStatusDto.builder()
+                .running(running)
+                .settings(running ? settings : null)
+                .startTime(running ? recording.getStartTime() : null)
+                .lastDump(lastDump != null ? lastDump.toString() : null)
+                .build();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void writeDump() {
+        Path file = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP) + FILE_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write flight recording to " + file, e);
+        }
+        lastDump = file.toAbsolutePath();
+        log.info("Wrote flight recording to {}", lastDump);
+        deleteOldDumps();
+    }
+
+    /**
+     * Deletes the oldest dumps beyond maxFiles. Dump names sort by their timestamp.
+     */
+    private void deleteOldDumps() {
+        List<Path> dumps = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(dumps::add);
+        } catch (IOException e) {
+            log.warn("Could not list flight recordings in {}: {}", directory, e.getMessage());
+            return;
+        }
+        dumps.sort(null);
+        for (Path dump : dumps.subList(0, Math.max(0, dumps.size() - maxFiles))) {
+            try {
+                Files.deleteIfExists(dump);
+            } catch (IOException e) {
+                log.warn("Could not delete flight recording {}: {}", dump, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.rakett.lennuk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a phase of loading, seeding or publishing the flight inventory.
+ */
+@Name("dev.rakett.lennuk.InventoryPhase")
+@Label("Inventory Phase")
+@Category({ "Lennuk", "Inventory" })
+@StackTrace(false)
+public class InventoryPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Flights")
+    public int flights;
+
+    /**
+    * Starts timing a phase; commit the event when the phase ends.
+    */
+    public static InventoryPhaseEvent start(String phase) {
+        InventoryPhaseEvent event = new InventoryPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+}
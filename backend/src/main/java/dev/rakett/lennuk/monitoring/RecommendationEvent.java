@@ -0,0 +1,34 @@
+package dev.rakett.lennuk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for finding recommended seats, either from the recommendation table or by search.
+ */
+@Name("dev.rakett.lennuk.Recommendation")
+@Label("Seat Recommendation")
+@Category({ "Lennuk", "Seating" })
+@Description("Looking up or searching for the recommended seats of a seat map")
+@StackTrace(false)
+public class RecommendationEvent extends Event {
+    @Label("Flight ID")
+    public long flightId;
+
+    @Label("Available Seats")
+    public int availableSeats;
+
+    @Label("Requested Seats")
+    public int requestedSeats;
+
+    @Label("Preferences")
+    public String preferences;
+
+    @Label("Searched")
+    @Description("False if the recommendation came from the recommendation table")
+    public boolean searched;
+}
@@ -0,0 +1,137 @@
+package dev.rakett.lennuk.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Lightweight phase timing for the request being handled on the current thread.
+ *
+ * A trace only exists for sampled requests. Without one, {@link #phase(String)} returns a shared
+ * no-op phase, so instrumented code costs one thread-local lookup per phase when sampling is off.
+ *
+ * <pre>
+ * try (RequestTracing.Phase phase = RequestTracing.phase("db")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class RequestTracing {
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+    private static final Phase NO_OP = () -> {
+    };
+
+    private RequestTracing() {
+    }
+
+    /**
+    * A timed phase, ended by closing it.
+    */
+    @FunctionalInterface
+    public interface Phase extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+    * Starts tracing the current thread's request.
+    */
+    public static Trace start() {
+        Trace trace = new Trace(System.nanoTime());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+    * Stops tracing the current thread's request.
+    */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+    * Starts a phase of the current request.
+    *
+    * @param name The phase name, used as the Server-Timing metric name.
+    * @return The phase, to be closed when it ends.
+    */
+    public static Phase phase(String name) {
+        Trace trace = CURRENT.get();
+        if (trace == null) {
+            return NO_OP;
+        }
+        long start = System.nanoTime();
+        return () -> trace.record(name, System.nanoTime() - start);
+    }
+
+    /**
+    * Marks the start of a phase that lasts until the end of the request.
+    *
+    * @param name The phase name.
+    */
+    public static void mark(String name) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.mark(name, System.nanoTime());
+        }
+    }
+
+    /**
+    * Phases recorded for one request, in the order they ended.
+    */
+    public static final class Trace {
+        private final long startNanos;
+        private String[] names = new String[8];
+        private long[] durations = new long[8];
+        private int size;
+        private String markName;
+        private long markNanos;
+
+        private Trace(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private void record(String name, long durationNanos) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                durations = Arrays.copyOf(durations, size * 2);
+            }
+            names[size] = name;
+            durations[size] = durationNanos;
+            size++;
+        }
+
+        private void mark(String name, long nanos) {
+            markName = name;
+            markNanos = nanos;
+        }
+
+        /**
+        * Ends the trace, closing the marked phase if there is one.
+        *
+        * @return The total duration of the request in nanoseconds.
+        */
+        public long finish() {
+            long end = System.nanoTime();
+            if (markName != null) {
+                record(markName, end - markNanos);
+                markName = null;
+            }
+            return end - startNanos;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+
+        public long durationNanos(int index) {
+            return durations[index];
+        }
+    }
+}
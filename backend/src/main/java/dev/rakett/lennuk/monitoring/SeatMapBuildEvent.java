@@ -0,0 +1,32 @@
+package dev.rakett.lennuk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for building a seat map with recommendations, emitted once per computation
+ * (coalesced requests share one event).
+ */
+@Name("dev.rakett.lennuk.SeatMapBuild")
+@Label("Seat Map Build")
+@Category({ "Lennuk", "Seating" })
+@Description("Loading a flight and building its seat map with recommendations")
+@StackTrace(false)
+public class SeatMapBuildEvent extends Event {
+    @Label("Flight ID")
+    public long flightId;
+
+    @Label("Seat Count")
+    @Description("Number of seats on the flight")
+    public int seatCount;
+
+    @Label("Requested Seats")
+    public int requestedSeats;
+
+    @Label("Preferences")
+    public String preferences;
+}
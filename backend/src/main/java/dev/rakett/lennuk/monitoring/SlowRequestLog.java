@@ -0,0 +1,52 @@
+package dev.rakett.lennuk.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.dto.RequestTraceDto;
+
+/**
+ * Fixed-size ring buffer of the most recent slow request traces. Once full, the oldest traces
+ * are overwritten.
+ */
+@Component
+public class SlowRequestLog {
+    private final AtomicReferenceArray<RequestTraceDto> traces;
+    private final AtomicLong written = new AtomicLong();
+
+    public SlowRequestLog(@Value("${tracing.slow-request-log-size:256}") int capacity) {
+        this.traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(RequestTraceDto trace) {
+        long index = written.getAndIncrement();
+        traces.set((int) (index % traces.length()), trace);
+    }
+
+    /**
+    * @return The buffered traces, newest first.
+    */
+    public List<RequestTraceDto> getTraces() {
+        long end = written.get();
+        long start = Math.max(0, end - traces.length());
+        List<RequestTraceDto> result = new ArrayList<>((int) (end - start));
+        for (long index = end - 1; index >= start; index--) {
+            RequestTraceDto trace = traces.get((int) (index % traces.length()));
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < traces.length(); i++) {
+            traces.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dev.rakett.lennuk.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.rakett.lennuk.entity.BookedSeat;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.entity.OccupancyCounters;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes flights and their booked seats with JDBC batch inserts, bypassing the persistence
+ * context, for loading inventories too large to save entity by entity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlightBatchWriter {
+    private static final String FLIGHT_COLUMNS = "origin, destination, departure_date, "
+            + "return_date, sub_type, origin_detailed_name, destination_detailed_name, base_price, rows, "
+            + "seats_per_row, seat_layout, booked_count, booked_window_count, booked_extra_legroom_count, "
+            + "booked_exit_row_count, return_booked_count, return_booked_window_count, "
+            + "return_booked_extra_legroom_count, return_booked_exit_row_count";
+    private static final String INSERT_FLIGHT = "INSERT INTO flights (" + FLIGHT_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FLIGHT_WITH_ID = "INSERT INTO flights (id, " + FLIGHT_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOKED_SEAT =
+            "INSERT INTO booked_seats (flight_id, seat_number, leg, customer_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+    * Inserts flights with their booked seats. The IDs generated for the flights are set on them.
+    *
+    * @param flights The unsaved flights.
+    */
+    @Transactional
+    public void insert(List<Flight> flights) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            insertFlights(connection, flights, false);
+            insertBookedSeats(connection, flights);
+            return null;
+        });
+    }
+
+    /**
+    * Inserts flights with their booked seats, keeping the IDs the flights already have, and
+    * moves the flight ID sequence past the highest of them so later inserts do not collide.
+    *
+    * @param flights The unsaved flights, each with an ID that is not in use.
+    */
+    @Transactional
+    public void insertWithIds(List<Flight> flights) {
+        long maxId = flights.stream().mapToLong(Flight::getId).max().orElse(0);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            insertFlights(connection, flights, true);
+            insertBookedSeats(connection, flights);
+            return null;
+        });
+        jdbcTemplate.execute("ALTER TABLE flights ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    private void insertFlights(Connection connection, List<Flight> flights, boolean withIds) throws SQLException {
+        String sql = withIds ? INSERT_FLIGHT_WITH_ID : INSERT_FLIGHT;
+        try (PreparedStatement statement = withIds
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, new String[] { "id" })) {
+            for (Flight flight : flights) {
+                int column = 1;
+                if (withIds) {
+                    statement.setLong(column++, flight.getId());
+                }
+                OccupancyCounters occupancy = flight.getOccupancy();
+                OccupancyCounters returnOccupancy = flight.getReturnOccupancy();
+                statement.setString(column++, flight.getOrigin());
+                statement.setString(column++, flight.getDestination());
+                statement.setString(column++, flight.getDepartureDate());
+                statement.setString(column++, flight.getReturnDate());
+                statement.setString(column++, flight.getSubType());
+                statement.setString(column++, flight.getOriginDetailedName());
+                statement.setString(column++, flight.getDestinationDetailedName());
+                statement.setBigDecimal(column++, flight.getBasePrice());
+                statement.setObject(column++, flight.getRows(), Types.INTEGER);
+                statement.setObject(column++, flight.getSeatsPerRow(), Types.INTEGER);
+                statement.setString(column++, flight.getSeatLayout());
+                statement.setInt(column++, occupancy.getBookedCount());
+                statement.setInt(column++, occupancy.getBookedWindowCount());
+                statement.setInt(column++, occupancy.getBookedExtraLegroomCount());
+                statement.setInt(column++, occupancy.getBookedExitRowCount());
+                statement.setInt(column++, returnOccupancy.getBookedCount());
+                statement.setInt(column++, returnOccupancy.getBookedWindowCount());
+                statement.setInt(column++, returnOccupancy.getBookedExtraLegroomCount());
+                statement.setInt(column, returnOccupancy.getBookedExitRowCount());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (withIds) {
+                return;
+            }
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (int i = 0; i < flights.size(); i++) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated key for flight " + i + " of batch");
+                    }
+                    flights.get(i).setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void insertBookedSeats(Connection connection, List<Flight> flights) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKED_SEAT)) {
+            for (Flight flight : flights) {
+                for (BookedSeat seat : flight.getBookedSeats()) {
+                    statement.setLong(1, flight.getId());
+                    statement.setString(2, seat.getSeatNumber());
+                    statement.setString(3, seat.getLeg().name());
+                    statement.setString(4, seat.getCustomerId());
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+}
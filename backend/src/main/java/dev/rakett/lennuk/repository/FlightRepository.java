@@ -1,22 +1,56 @@
 package dev.rakett.lennuk.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import dev.rakett.lennuk.entity.Flight;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, Long> {
 
-    @Query("SELECT DISTINCT f FROM Flight f LEFT JOIN FETCH f.bookedSeats WHERE f.origin = :origin OR " +
-            "((:origin = 'LON' AND (f.origin = 'LGW' OR f.origin = 'LHR' OR f.origin = 'STN' OR f.origin = 'LCY' OR f.origin = 'LTN')))")
-    List<Flight> findByOrigin(@Param("origin") String origin);
-
     @Query("SELECT f FROM Flight f LEFT JOIN FETCH f.bookedSeats WHERE f.id = :id")
     Optional<Flight> findByIdWithBookedSeats(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT f FROM Flight f LEFT JOIN FETCH f.bookedSeats ORDER BY f.id")
+    List<Flight> findAllWithBookedSeats();
+
+    @Query("SELECT DISTINCT f FROM Flight f LEFT JOIN FETCH f.bookedSeats WHERE f.id IN :ids")
+    List<Flight> findAllByIdWithBookedSeats(@Param("ids") Collection<Long> ids);
+
+    // Locks in ID order, so transactions locking overlapping flights cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Flight f WHERE f.id IN :ids ORDER BY f.id")
+    List<Flight> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f FROM Flight f ORDER BY f.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Flight> streamAllOrderById();
+
+    @Query("SELECT b.flight.id, b.seatNumber, b.leg FROM BookedSeat b ORDER BY b.flight.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Object[]> streamBookedSeatsOrderByFlightId();
+
+    @Query("SELECT b.flight.id, b.flight.departureDate, b.customerId, COUNT(b) FROM BookedSeat b "
+            + "WHERE b.customerId IS NOT NULL GROUP BY b.flight.id, b.flight.departureDate, b.customerId, b.leg")
+    List<Object[]> countBookedSeatsByCustomerAndLeg();
 }
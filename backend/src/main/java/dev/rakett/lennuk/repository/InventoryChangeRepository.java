@@ -0,0 +1,25 @@
+package dev.rakett.lennuk.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.rakett.lennuk.entity.InventoryChange;
+
+@Repository
+public interface InventoryChangeRepository extends JpaRepository<InventoryChange, Long> {
+
+    List<InventoryChange> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM InventoryChange c")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM InventoryChange c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -15,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -23,6 +24,7 @@ import dev.rakett.lennuk.dto.AmadeusOAuthResponseDto;
 import dev.rakett.lennuk.dto.AmadeusFlightDestinationResponseDto.FlightDestinationData;
 import dev.rakett.lennuk.entity.Flight;
 import dev.rakett.lennuk.exception.ExternalServiceException;
+import dev.rakett.lennuk.monitoring.AmadeusCallEvent;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -67,11 +69,19 @@ public class AmadeusApiService {
         int attempt = 0;
 
         while (attempt < maxRetries) {
+            AmadeusCallEvent event = new AmadeusCallEvent();
+            // The retry handler advances attempt before the event is committed
+            int callAttempt = attempt + 1;
+            boolean called = false;
+            int status = 0;
+            boolean succeeded = false;
             try {
                 String token = getAccessToken();
                 if (token == null) {
                     throw new ExternalServiceException("Failed to obtain Amadeus API access token");
                 }
+                called = true;
+                event.begin();
 
                 HttpHeaders headers = new HttpHeaders();
                 headers.setBearerAuth(token);
@@ -86,8 +96,10 @@ public class AmadeusApiService {
                         HttpMethod.GET,
                         new HttpEntity<>(headers),
                         AmadeusFlightDestinationResponseDto.class);
+                status = response.getStatusCode().value();
 
                 if (response.getBody() != null) {
+                    succeeded = true;
                     return mapToFlightEntities(response.getBody());
                 } else {
                     throw new ExternalServiceException("Received null response from Amadeus API");
@@ -96,6 +108,7 @@ public class AmadeusApiService {
                 // To deal with the occasional 500 from amadeus api: 
                 // {"errors":[{"status":500,"code":141,"title":"SYSTEM ERROR HAS OCCURRED","detail":"Primitive Timeout"}]}
             } catch (HttpServerErrorException.InternalServerError e) {
+                status = e.getStatusCode().value();
                 if (shouldRetry(e)) {
                     log.warn("Primitive Timeout detected, retrying... (attempt {}/{})", attempt + 1, maxRetries);
                     attempt++;
@@ -110,6 +123,9 @@ public class AmadeusApiService {
                     throw new ExternalServiceException("Error communicating with Amadeus API", e);
                 }
             } catch (RestClientException e) {
+                if (e instanceof HttpStatusCodeException statusError) {
+                    status = statusError.getStatusCode().value();
+                }
                 log.error("Error fetching flight data from Amadeus API", e);
                 throw new ExternalServiceException("Error communicating with Amadeus API", e);
             } catch (ExternalServiceException e) {
@@ -118,6 +134,15 @@ public class AmadeusApiService {
             } catch (Exception e) {
                 log.error("Unexpected error fetching flight data", e);
                 throw new ExternalServiceException("Unexpected error fetching flight data: " + e.getMessage(), e);
+            } finally {
+                // Only calls that were made are recorded, not attempts that failed to get a token
+                if (called && event.shouldCommit()) {
+                    event.endpoint = AmadeusCallEvent.FLIGHT_DESTINATIONS;
+                    event.attempt = callAttempt;
+                    event.status = status;
+                    event.succeeded = succeeded;
+                    event.commit();
+                }
             }
         }
         throw new ExternalServiceException("Failed to fetch flight data after " + maxRetries + " attempts");
@@ -141,6 +166,10 @@ public class AmadeusApiService {
         log.debug("Requesting new access token from {}/v1/security/oauth2/token", apiUrl);
         String requestBody = "grant_type=client_credentials&client_id=" + apiKey +
                 "&client_secret=" + clientSecret;
+        AmadeusCallEvent event = new AmadeusCallEvent();
+        int status = 0;
+        boolean succeeded = false;
+        event.begin();
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
@@ -150,8 +179,10 @@ public class AmadeusApiService {
                     HttpMethod.POST,
                     request,
                     AmadeusOAuthResponseDto.class);
+            status = response.getStatusCode().value();
             AmadeusOAuthResponseDto responseBody = response.getBody();
             if (responseBody != null) {
+                succeeded = true;
                 log.debug("Token response: {}", responseBody);
                 cachedToken.set(responseBody.getAccessToken());
                 int expirySeconds = responseBody.getExpiresIn();
@@ -163,11 +194,22 @@ public class AmadeusApiService {
             }
             throw new ExternalServiceException("Failed to obtain access token: response body is null");
         } catch (RestClientException e) {
+            if (e instanceof HttpStatusCodeException statusError) {
+                status = statusError.getStatusCode().value();
+            }
             log.error("Error obtaining access token: {}", e.getMessage(), e);
             throw new ExternalServiceException("Error communicating with Amadeus authentication service", e);
         } catch (Exception e) {
             log.error("Error obtaining access token: {} - {}", e.getClass().getName(), e.getMessage(), e);
             throw new ExternalServiceException("Unexpected error obtaining access token", e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.endpoint = AmadeusCallEvent.TOKEN;
+                event.attempt = 1;
+                event.status = status;
+                event.succeeded = succeeded;
+                event.commit();
+            }
         }
     }
 
@@ -0,0 +1,542 @@
+package dev.rakett.lennuk.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.model.Leg;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only write-ahead log of seat bookings.
+ *
+ * Bookings are appended to fixed-size, memory-mapped segment files by a single writer thread.
+ * The writer drains every booking queued while the previous batch was being flushed and makes
+ * the whole batch durable with one force, so durable throughput grows with batch size rather
+ * than with the number of flushes. Committed records are then handed to the checkpointer, which
+ * applies them to the database asynchronously, and segments are deleted once their records are
+ * covered by an inventory snapshot. A batch that fails part way is rolled back before its appends
+ * fail, so a booking reported as failed is never replayed after a restart.
+ *
+ * The database is in memory, so the journal is only durable together with the snapshot it is
+ * replayed onto, and it refuses to start unless inventory snapshots are enabled.
+ *
+ * Record layout (big-endian): int length, byte version, long sequence, long flightId,
+ * short length and UTF-8 bytes of the customer ID, short outbound seat count, short return seat
+ * count, per seat (byte length, ASCII seat number), and int CRC32 of everything after the length.
+ * A zero length marks the end of a segment's records. A record of another version fails startup
+ * rather than being skipped, since its booking could not be replayed.
+ */
+@Component
+@Slf4j
+public class BookingJournal {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final byte RECORD_VERSION = 1;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Queue<JournalRecord> committed = new ConcurrentLinkedQueue<>();
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final List<JournalRecord> recovered = new ArrayList<>();
+    private final AtomicLong appliedSequence = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong recordCount = new AtomicLong();
+    // Held while records are applied to the database, so a snapshot sees exactly the applied records
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final boolean snapshotsEnabled;
+    private volatile long minimumSequence = 1;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    // Owned by the writer thread
+    private long nextSequence = 1;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeSegment;
+
+    public BookingJournal(
+            @Value("${booking.journal.enabled:false}") boolean enabled,
+            @Value("${booking.journal.dir:data/journal}") String directory,
+            @Value("${booking.journal.segment-size:16777216}") int segmentSize,
+            @Value("${booking.journal.max-batch-size:1024}") int maxBatchSize,
+            @Value("${inventory.snapshot.enabled:false}") boolean snapshotsEnabled) {
+        this.enabled = enabled;
+        this.snapshotsEnabled = snapshotsEnabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+    * Recovers the records of existing segments and starts the writer thread.
+    *
+    * @throws IOException           If the journal directory cannot be created or read.
+    * @throws IllegalStateException If inventory snapshots are disabled.
+    */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (!snapshotsEnabled) {
+            throw new IllegalStateException("The booking journal requires inventory snapshots "
+                    + "(inventory.snapshot.enabled=true): without them the database does not survive a restart "
+                    + "and the journal could neither be truncated nor replayed");
+        }
+        Files.createDirectories(directory);
+        recover();
+        running = true;
+        writer = new Thread(this::writeLoop, "booking-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Booking journal started in {} with {} recovered records", directory, recovered.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeActiveSegment();
+    }
+
+    /**
+    * Queues a booking for the next group commit.
+    *
+    * @param flightId          The ID of the booked flight.
+    * @param customerId        The customer who booked the seats.
+    * @param seatNumbers       The booked seats on the outbound leg.
+    * @param returnSeatNumbers The booked seats on the return leg.
+    * @return A future completed with the record's sequence number once the record is durable.
+    */
+    public CompletableFuture<Long> append(long flightId, String customerId, List<String> seatNumbers,
+            List<String> returnSeatNumbers) {
+        return appendAll(List.of(new Booking(flightId, customerId, seatNumbers, returnSeatNumbers)));
+    }
+
+    /**
+    * Queues several bookings to be made durable together, in the same group commit.
+    *
+    * @param bookings The bookings, each written as its own record.
+    * @return A future completed with the sequence number of the last record once all are durable.
+    */
+    public CompletableFuture<Long> appendAll(List<Booking> bookings) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Booking journal is not running"));
+        }
+        if (bookings.isEmpty()) {
+            return CompletableFuture.completedFuture(getAppliedSequence());
+        }
+        List<Booking> copies = bookings.stream()
+                .map(booking -> new Booking(booking.flightId(), booking.customerId(),
+                        List.copyOf(booking.seatNumbers()), List.copyOf(booking.returnSeatNumbers())))
+                .toList();
+        PendingAppend pending = new PendingAppend(copies, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.result;
+    }
+
+    /**
+    * Returns the records found in existing segments at startup, in sequence order.
+    *
+    * @return The recovered records.
+    */
+    public List<JournalRecord> recoveredRecords() {
+        return Collections.unmodifiableList(recovered);
+    }
+
+    /**
+    * Takes up to max durable records that have not been handed to the checkpointer yet.
+    *
+    * @param max The maximum number of records to take.
+    * @return The records, in sequence order.
+    */
+    public List<JournalRecord> pollCommitted(int max) {
+        List<JournalRecord> records = new ArrayList<>();
+        JournalRecord record;
+        while (records.size() < max && (record = committed.poll()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+    * Returns the lock held while committed records are applied to the database and marked applied.
+    *
+    * @return The apply lock.
+    */
+    public Lock applyLock() {
+        return applyLock;
+    }
+
+    /**
+    * Makes sure new records are numbered after the given sequence, which a restored snapshot
+    * already covers, even if the segments that held it have been deleted.
+    *
+    * @param sequence The highest sequence number already in use.
+    */
+    public void advanceSequence(long sequence) {
+        minimumSequence = Math.max(minimumSequence, sequence + 1);
+    }
+
+    public void markApplied(long sequence) {
+        appliedSequence.accumulateAndGet(sequence, Math::max);
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getRecordCount() {
+        return recordCount.get();
+    }
+
+    /**
+    * Deletes every segment whose records all have a sequence number of at most upTo.
+    * The newest segment is never deleted.
+    *
+    * @param upTo The highest sequence number that no longer needs to be retained.
+    */
+    public void truncate(long upTo) {
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next - 1 > upTo) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.getValue());
+                segments.remove(entry.getKey());
+                log.debug("Deleted journal segment {}", entry.getValue());
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", entry.getValue(), e.getMessage());
+                break;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write booking journal batch of {} records", batch.size(), e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) throws IOException {
+        // Encode the whole batch first, so a record that cannot be written fails it before any of it is
+        long firstSequence = Math.max(nextSequence, minimumSequence);
+        List<JournalRecord> records = new ArrayList<>(batch.size());
+        List<byte[]> encoded = new ArrayList<>(batch.size());
+        for (PendingAppend pending : batch) {
+            for (Booking booking : pending.bookings()) {
+                JournalRecord record = new JournalRecord(firstSequence + records.size(), booking.flightId(),
+                        booking.customerId(), booking.seatNumbers(), booking.returnSeatNumbers());
+                byte[] bytes = encode(record);
+                if (bytes.length + Integer.BYTES > segmentSize) {
+                    throw new IllegalStateException(
+                            "Journal record of " + bytes.length + " bytes exceeds the segment size");
+                }
+                records.add(record);
+                encoded.add(bytes);
+            }
+        }
+
+        MappedByteBuffer startSegment = activeSegment;
+        int startPosition = startSegment != null ? startSegment.position() : 0;
+        List<Long> openedSegments = new ArrayList<>();
+        try {
+            int flushFrom = startPosition;
+            for (int i = 0; i < records.size(); i++) {
+                byte[] bytes = encoded.get(i);
+                // Keep room for the zero length that terminates the segment
+                if (activeSegment == null || activeSegment.remaining() < bytes.length + Integer.BYTES) {
+                    if (activeSegment != null) {
+                        activeSegment.force(flushFrom, activeSegment.position() - flushFrom);
+                    }
+                    openedSegments.add(records.get(i).sequence());
+                    openSegment(records.get(i).sequence());
+                    flushFrom = 0;
+                }
+                activeSegment.put(bytes);
+            }
+            activeSegment.force(flushFrom, activeSegment.position() - flushFrom);
+        } catch (IOException | RuntimeException e) {
+            rollBack(startSegment, startPosition, openedSegments, firstSequence + records.size());
+            throw e;
+        }
+        nextSequence = firstSequence + records.size();
+        batchCount.incrementAndGet();
+        recordCount.addAndGet(records.size());
+
+        committed.addAll(records);
+        long sequence = firstSequence - 1;
+        for (PendingAppend pending : batch) {
+            sequence += pending.bookings().size();
+            pending.result.complete(sequence);
+        }
+    }
+
+    /**
+     * Removes whatever a failed batch wrote, so records whose appends failed are not replayed after
+     * a restart: zero-fills and forces its range of the segment that was active when it started and
+     * deletes the segments it opened. If that fails too, the batch's sequence numbers are skipped,
+     * so the records left behind are at least never mistaken for later ones.
+     */
+    private void rollBack(MappedByteBuffer startSegment, int startPosition, List<Long> openedSegments,
+            long endSequence) {
+        try {
+            if (!openedSegments.isEmpty()) {
+                // Dropped without a force, nothing in the opened segments is worth keeping
+                activeSegment = null;
+                closeActiveSegment();
+                for (Long firstSequence : openedSegments) {
+                    Files.deleteIfExists(segmentPath(firstSequence));
+                    segments.remove(firstSequence);
+                }
+            }
+            if (startSegment != null) {
+                int endPosition = startSegment.position();
+                for (int i = startPosition; i < endPosition; i++) {
+                    startSegment.put(i, (byte) 0);
+                }
+                startSegment.force(startPosition, endPosition - startPosition);
+                startSegment.position(startPosition);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not roll back a failed journal batch, its records may be replayed after a restart", e);
+            activeSegment = null;
+            closeActiveSegment();
+            nextSequence = endSequence;
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        closeActiveSegment();
+        Path path = segmentPath(firstSequence);
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        activeSegment = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(firstSequence, path);
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private void closeActiveSegment() {
+        if (activeSegment != null) {
+            activeSegment.force();
+            activeSegment = null;
+        }
+        if (activeChannel != null) {
+            try {
+                activeChannel.close();
+            } catch (IOException e) {
+                log.warn("Could not close journal segment: {}", e.getMessage());
+            }
+            activeChannel = null;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            long firstSequence = Long.parseLong(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(firstSequence, path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                JournalRecord record;
+                while ((record = decode(buffer)) != null) {
+                    recovered.add(record);
+                    nextSequence = Math.max(nextSequence, record.sequence() + 1);
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(JournalRecord record) {
+        byte[] customer = record.customerId().getBytes(StandardCharsets.UTF_8);
+        if (customer.length > 0xFFFF) {
+            throw new IllegalArgumentException("Customer ID of " + customer.length + " bytes is too long");
+        }
+        int bodyLength = Byte.BYTES + Long.BYTES + Long.BYTES + Short.BYTES + customer.length
+                + Short.BYTES + Short.BYTES;
+        List<byte[]> seats = new ArrayList<>();
+        for (Leg leg : Leg.values()) {
+            for (String seat : record.seatNumbers(leg)) {
+                byte[] bytes = seat.getBytes(StandardCharsets.US_ASCII);
+                if (bytes.length > 0xFF) {
+                    throw new IllegalArgumentException("Seat number " + seat + " is too long");
+                }
+                seats.add(bytes);
+                bodyLength += Byte.BYTES + bytes.length;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bodyLength + Integer.BYTES);
+        buffer.putInt(bodyLength + Integer.BYTES);
+        buffer.put(RECORD_VERSION);
+        buffer.putLong(record.sequence());
+        buffer.putLong(record.flightId());
+        buffer.putShort((short) customer.length);
+        buffer.put(customer);
+        buffer.putShort((short) record.seatNumbers().size());
+        buffer.putShort((short) record.returnSeatNumbers().size());
+        for (byte[] seat : seats) {
+            buffer.put((byte) seat.length);
+            buffer.put(seat);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, bodyLength);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the segment or at a torn write.
+     */
+    private static JournalRecord decode(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length <= Integer.BYTES || length > buffer.remaining()) {
+            return null;
+        }
+        int bodyStart = buffer.position();
+        byte[] body = new byte[length - Integer.BYTES];
+        buffer.get(body);
+        int storedCrc = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != storedCrc) {
+            log.warn("Journal record at offset {} failed its checksum, ignoring the rest of the segment", start);
+            return null;
+        }
+
+        ByteBuffer fields = ByteBuffer.wrap(body);
+        byte version = fields.get();
+        if (version != RECORD_VERSION) {
+            throw new IllegalStateException("Unsupported journal record version " + version + " at offset " + start);
+        }
+        long sequence = fields.getLong();
+        long flightId = fields.getLong();
+        byte[] customer = new byte[fields.getShort() & 0xFFFF];
+        fields.get(customer);
+        int seatCount = fields.getShort() & 0xFFFF;
+        int returnSeatCount = fields.getShort() & 0xFFFF;
+        List<String> seatNumbers = readSeats(fields, seatCount);
+        List<String> returnSeatNumbers = readSeats(fields, returnSeatCount);
+        buffer.position(bodyStart + length);
+        return new JournalRecord(sequence, flightId, new String(customer, StandardCharsets.UTF_8), seatNumbers,
+                returnSeatNumbers);
+    }
+
+    private static List<String> readSeats(ByteBuffer fields, int count) {
+        List<String> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] seat = new byte[fields.get() & 0xFF];
+            fields.get(seat);
+            seats.add(new String(seat, StandardCharsets.US_ASCII));
+        }
+        return seats;
+    }
+
+    /**
+     * A durable booking: the seats a customer booked on each leg of one flight.
+     */
+    public record JournalRecord(long sequence, long flightId, String customerId, List<String> seatNumbers,
+            List<String> returnSeatNumbers) {
+
+        public List<String> seatNumbers(Leg leg) {
+            return leg == Leg.RETURN ? returnSeatNumbers : seatNumbers;
+        }
+
+        public Booking booking() {
+            return new Booking(flightId, customerId, seatNumbers, returnSeatNumbers);
+        }
+    }
+
+    /**
+     * A booking to append: the seats a customer booked on each leg of one flight.
+     */
+    public record Booking(long flightId, String customerId, List<String> seatNumbers,
+            List<String> returnSeatNumbers) {
+
+        public List<String> seatNumbers(Leg leg) {
+            return leg == Leg.RETURN ? returnSeatNumbers : seatNumbers;
+        }
+    }
+
+    private record PendingAppend(List<Booking> bookings, CompletableFuture<Long> result) {
+    }
+}
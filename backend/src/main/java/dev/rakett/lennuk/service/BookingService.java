@@ -0,0 +1,400 @@
+package dev.rakett.lennuk.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.rakett.lennuk.dto.BookingRequestDto;
+import dev.rakett.lennuk.dto.BookingResponseDto;
+import dev.rakett.lennuk.entity.BookedSeat;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.event.OccupancyChangedEvent;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.exception.ConflictException;
+import dev.rakett.lennuk.exception.ResourceNotFoundException;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.repository.FlightRepository;
+import dev.rakett.lennuk.service.BookingJournal.Booking;
+import dev.rakett.lennuk.service.BookingJournal.JournalRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for booking seats.
+ *
+ * A booking names seats on the outbound leg, the return leg of a round trip, or both; each leg
+ * has its own occupancy. With the booking journal enabled, a booking is confirmed as soon as its
+ * journal record is durable; the seats are held in {@link SeatReservations} until the checkpointer has applied
+ * the record to the database. Without the journal, bookings are written to the database directly,
+ * under a lock on the flight row, so instances of a cluster cannot book the same seat.
+ */
+@Service
+@Slf4j
+public class BookingService {
+    public static final String STATUS_CONFIRMED = "CONFIRMED";
+
+    static final Pattern SEAT_NUMBER = Pattern.compile("\\d{1,3}[A-Z]");
+
+    private final FlightService flightService;
+    private final FlightRepository flightRepository;
+    private final BookingJournal bookingJournal;
+    private final SeatReservations seatReservations;
+    private final TicketQuotas ticketQuotas;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final ClusterInvalidationService clusterInvalidationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int checkpointBatchSize;
+    private final AtomicBoolean replayed = new AtomicBoolean();
+
+    public BookingService(
+            FlightService flightService,
+            FlightRepository flightRepository,
+            BookingJournal bookingJournal,
+            SeatReservations seatReservations,
+            TicketQuotas ticketQuotas,
+            InventorySnapshotService inventorySnapshotService,
+            ClusterInvalidationService clusterInvalidationService,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${booking.journal.checkpoint-batch-size:10000}") int checkpointBatchSize) {
+        this.flightService = flightService;
+        this.flightRepository = flightRepository;
+        this.bookingJournal = bookingJournal;
+        this.seatReservations = seatReservations;
+        this.ticketQuotas = ticketQuotas;
+        this.inventorySnapshotService = inventorySnapshotService;
+        this.clusterInvalidationService = clusterInvalidationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.checkpointBatchSize = checkpointBatchSize;
+    }
+
+    /**
+    * Books seats on a flight for a customer.
+    *
+    * @param flightId   The ID of the flight.
+    * @param customerId The customer booking the seats.
+    * @param request    The seats to book.
+    * @return A BookingResponseDto confirming the booked seats.
+    * @throws BadRequestException       If the request is empty, too large or names invalid seats.
+    * @throws ResourceNotFoundException If the flight is not found.
+    * @throws ConflictException         If any of the seats is already booked, or the customer
+    *                                   would exceed the ticket limit for the flight.
+    */
+    public BookingResponseDto bookSeats(Long flightId, String customerId, BookingRequestDto request) {
+        List<String> seatNumbers = normalizeSeats(request == null ? null : request.getSeatNumbers());
+        List<String> returnSeatNumbers = normalizeSeats(request == null ? null : request.getReturnSeatNumbers());
+        validateRequest(seatNumbers, returnSeatNumbers);
+        if (customerId.length() > BookedSeat.MAX_CUSTOMER_ID_LENGTH) {
+            throw new BadRequestException(
+                    "Customer ID is longer than " + BookedSeat.MAX_CUSTOMER_ID_LENGTH + " characters");
+        }
+        // A ticket covers a passenger's seats on both legs
+        int tickets = Math.max(seatNumbers.size(), returnSeatNumbers.size());
+        CompletableFuture<Long> commit;
+
+        Lock lock = seatReservations.lockFor(flightId);
+        lock.lock();
+        try {
+            Flight flight = flightService.getFlightById(flightId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Flight", "ID", flightId));
+            if (!returnSeatNumbers.isEmpty() && !flight.hasReturnLeg()) {
+                throw new BadRequestException("This flight has no return leg");
+            }
+            validateSeats(flight, Leg.OUTBOUND, seatNumbers);
+            validateSeats(flight, Leg.RETURN, returnSeatNumbers);
+            acquireTickets(flight, customerId, tickets);
+
+            try {
+                if (!bookingJournal.isEnabled()) {
+                    storeBooking(new Booking(flightId, customerId, seatNumbers, returnSeatNumbers));
+                    return confirmation(flightId, seatNumbers, returnSeatNumbers);
+                }
+                seatReservations.reserve(flightId, Leg.OUTBOUND, seatNumbers);
+                seatReservations.reserve(flightId, Leg.RETURN, returnSeatNumbers);
+                eventPublisher.publishEvent(new OccupancyChangedEvent(List.of(flightId)));
+                commit = bookingJournal.append(flightId, customerId, seatNumbers, returnSeatNumbers);
+            } catch (RuntimeException e) {
+                ticketQuotas.release(flightId, customerId, tickets);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Wait for the group commit outside the lock, so concurrent bookings share a flush
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            seatReservations.release(flightId, Leg.OUTBOUND, seatNumbers);
+            seatReservations.release(flightId, Leg.RETURN, returnSeatNumbers);
+            ticketQuotas.release(flightId, customerId, tickets);
+            eventPublisher.publishEvent(new OccupancyChangedEvent(List.of(flightId)));
+            throw new IllegalStateException("Booking could not be made durable", e.getCause());
+        }
+        return confirmation(flightId, seatNumbers, returnSeatNumbers);
+    }
+
+    private void acquireTickets(Flight flight, String customerId, int tickets) {
+        int held = ticketQuotas.tryAcquire(flight.getId(), flight.getDepartureDate(), customerId, tickets);
+        if (held < 0) {
+            throw new ConflictException("At most " + TicketQuotas.MAX_TICKETS_PER_FLIGHT
+                    + " tickets can be booked per customer on a flight");
+        }
+    }
+
+    /**
+    * Applies durable journal records to the database in one transaction and releases their
+    * seat reservations. Journal segments whose records are all contained in an inventory
+    * snapshot are deleted afterwards.
+    */
+    @Scheduled(fixedDelayString = "${booking.journal.checkpoint-interval-ms:500}")
+    public synchronized void checkpoint() {
+        List<JournalRecord> records = bookingJournal.pollCommitted(checkpointBatchSize);
+        if (records.isEmpty()) {
+            return;
+        }
+        Lock applyLock = bookingJournal.applyLock();
+        applyLock.lock();
+        try {
+            applyBookings(groupByFlight(records), false);
+            bookingJournal.markApplied(records.get(records.size() - 1).sequence());
+        } finally {
+            applyLock.unlock();
+        }
+
+        for (JournalRecord record : records) {
+            Lock lock = seatReservations.lockFor(record.flightId());
+            lock.lock();
+            try {
+                for (Leg leg : Leg.values()) {
+                    seatReservations.release(record.flightId(), leg, record.seatNumbers(leg));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        // The database does not survive a restart, so only a snapshot makes an applied record redundant
+        bookingJournal.truncate(inventorySnapshotService.getCoveredSequence());
+        log.debug("Checkpointed {} journal records up to sequence {}", records.size(),
+                bookingJournal.getAppliedSequence());
+    }
+
+    /**
+    * Replays the journal records recovered at startup once the inventory has been loaded.
+    * Records are only replayed on top of the snapshot they were booked against, skipping the
+    * records the snapshot already contains. The ticket counts are then rebuilt from the
+    * booked seats.
+    *
+    * @throws IllegalStateException If the inventory was not restored from a snapshot, or a
+    *                               replayed booking names a missing flight or a booked seat.
+    *                               Startup then fails rather than losing confirmed bookings.
+    */
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        if (!replayed.compareAndSet(false, true)) {
+            return;
+        }
+        List<JournalRecord> records = bookingJournal.recoveredRecords();
+        if (!records.isEmpty()) {
+            replay(records);
+        }
+        ticketQuotas.rebuild();
+    }
+
+    private void replay(List<JournalRecord> records) {
+        OptionalLong restoredSequence = inventorySnapshotService.getRestoredSequence();
+        if (restoredSequence.isEmpty()) {
+            throw new IllegalStateException("Cannot replay " + records.size() + " booking journal records: "
+                    + "the inventory was not restored from the snapshot they were booked against");
+        }
+        List<JournalRecord> pending = records.stream()
+                .filter(record -> record.sequence() > restoredSequence.getAsLong())
+                .toList();
+
+        Lock applyLock = bookingJournal.applyLock();
+        applyLock.lock();
+        try {
+            if (!pending.isEmpty()) {
+                applyBookings(groupByFlight(pending), true);
+            }
+            bookingJournal.markApplied(records.get(records.size() - 1).sequence());
+        } finally {
+            applyLock.unlock();
+        }
+        log.info("Replayed {} booking journal records on top of snapshot sequence {}", pending.size(),
+                restoredSequence.getAsLong());
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    /**
+    * Writes a booking straight to the database. The flight row is locked and its booked seats
+    * are read again inside the transaction, since other instances of a cluster book seats without
+    * this instance's locks and its cached flight may be stale.
+    *
+    * @throws ConflictException If any of the seats has been booked in the meantime.
+    */
+    private void storeBooking(Booking booking) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> flightIds = List.of(booking.flightId());
+                flightRepository.lockAllById(flightIds);
+                Flight flight = flightRepository.findAllByIdWithBookedSeats(flightIds).stream()
+                        .findFirst()
+                        .orElseThrow(() -> new ResourceNotFoundException("Flight", "ID", booking.flightId()));
+                for (Leg leg : Leg.values()) {
+                    Set<String> booked = bookedSeatNumbers(flight, leg);
+                    for (String seatNumber : booking.seatNumbers(leg)) {
+                        if (booked.contains(seatNumber)) {
+                            throw new ConflictException("Seat " + seatNumber + " is already booked");
+                        }
+                    }
+                }
+                for (Leg leg : Leg.values()) {
+                    for (String seatNumber : booking.seatNumbers(leg)) {
+                        flight.addBookedSeat(seatNumber, leg, booking.customerId());
+                    }
+                }
+                clusterInvalidationService.recordChanges(flightIds);
+                flightRepository.flush();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted one of the seats after this transaction read them
+            throw new ConflictException("One of the seats has just been booked");
+        }
+        eventPublisher.publishEvent(new OccupancyChangedEvent(List.of(booking.flightId())));
+    }
+
+    /**
+    * Books the given seats in one transaction.
+    *
+    * @param bookingsByFlight The bookings per flight.
+    * @param strict           Whether a missing flight or an already booked seat fails the whole
+    *                         transaction instead of being skipped.
+    */
+    private void applyBookings(Map<Long, List<Booking>> bookingsByFlight, boolean strict) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Flight> flights = flightRepository.findAllByIdWithBookedSeats(bookingsByFlight.keySet());
+            for (Flight flight : flights) {
+                Map<Leg, Set<String>> booked = new EnumMap<>(Leg.class);
+                for (Booking booking : bookingsByFlight.get(flight.getId())) {
+                    for (Leg leg : Leg.values()) {
+                        Set<String> bookedOnLeg = booked.computeIfAbsent(leg, l -> bookedSeatNumbers(flight, l));
+                        for (String seatNumber : booking.seatNumbers(leg)) {
+                            if (bookedOnLeg.add(seatNumber)) {
+                                flight.addBookedSeat(seatNumber, leg, booking.customerId());
+                            } else if (strict) {
+                                throw new IllegalStateException("Seat " + seatNumber + " on the " + leg
+                                        + " leg of flight " + flight.getId() + " is booked more than once");
+                            }
+                        }
+                    }
+                }
+            }
+            if (strict && flights.size() < bookingsByFlight.size()) {
+                Set<Long> missing = new HashSet<>(bookingsByFlight.keySet());
+                flights.forEach(flight -> missing.remove(flight.getId()));
+                throw new IllegalStateException("Bookings name flights that do not exist: " + missing);
+            }
+            if (flights.size() < bookingsByFlight.size()) {
+                log.warn("Skipped bookings for {} flights that no longer exist",
+                        bookingsByFlight.size() - flights.size());
+            }
+            clusterInvalidationService.recordChanges(flights.stream().map(Flight::getId).toList());
+        });
+        eventPublisher.publishEvent(new OccupancyChangedEvent(bookingsByFlight.keySet()));
+    }
+
+    private Map<Long, List<Booking>> groupByFlight(List<JournalRecord> records) {
+        Map<Long, List<Booking>> bookingsByFlight = new LinkedHashMap<>();
+        for (JournalRecord record : records) {
+            bookingsByFlight.computeIfAbsent(record.flightId(), id -> new ArrayList<>()).add(record.booking());
+        }
+        return bookingsByFlight;
+    }
+
+    private List<String> normalizeSeats(List<String> seats) {
+        if (seats == null) {
+            return List.of();
+        }
+        return seats.stream()
+                .map(seat -> seat == null ? "" : seat.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    private void validateRequest(List<String> seatNumbers, List<String> returnSeatNumbers) {
+        if (seatNumbers.isEmpty() && returnSeatNumbers.isEmpty()) {
+            throw new BadRequestException("At least one seat must be booked");
+        }
+        for (List<String> seats : List.of(seatNumbers, returnSeatNumbers)) {
+            if (seats.size() > SeatPreference.MAX_NUMBER_OF_SEATS) {
+                throw new BadRequestException(
+                        "At most " + SeatPreference.MAX_NUMBER_OF_SEATS + " seats can be booked at once per leg");
+            }
+            if (new HashSet<>(seats).size() != seats.size()) {
+                throw new BadRequestException("Each seat can only be booked once per request");
+            }
+        }
+    }
+
+    private void validateSeats(Flight flight, Leg leg, List<String> seatNumbers) {
+        SeatLayout layout = flight.getLayout();
+        Set<String> booked = bookedSeatNumbers(flight, leg);
+        booked.addAll(seatReservations.pendingSeats(flight.getId(), leg));
+        for (String seatNumber : seatNumbers) {
+            if (!SEAT_NUMBER.matcher(seatNumber).matches()
+                    || SeatLayout.rowOf(seatNumber) < 1 || SeatLayout.rowOf(seatNumber) > layout.getRows()
+                    || SeatLayout.columnOf(seatNumber) > layout.getSeatsPerRow()) {
+                throw new BadRequestException("Seat " + seatNumber + " does not exist on this flight");
+            }
+            if (booked.contains(seatNumber)) {
+                throw new ConflictException("Seat " + seatNumber + " is already booked");
+            }
+        }
+    }
+
+    private Set<String> bookedSeatNumbers(Flight flight, Leg leg) {
+        return flight.getBookedSeats().stream()
+                .filter(seat -> seat.getLeg() == leg)
+                .map(BookedSeat::getSeatNumber)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private BookingResponseDto confirmation(Long flightId, List<String> seatNumbers, List<String> returnSeatNumbers) {
+        return BookingResponseDto.builder()
+                .flightId(flightId)
+                .seatNumbers(seatNumbers)
+                .returnSeatNumbers(returnSeatNumbers)
+                .status(STATUS_CONFIRMED)
+                .build();
+    }
+}
@@ -0,0 +1,394 @@
+package dev.rakett.lennuk.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import dev.rakett.lennuk.dto.BulkBookingRecordDto;
+import dev.rakett.lennuk.dto.BulkBookingReportDto;
+import dev.rakett.lennuk.dto.BulkBookingResultDto;
+import dev.rakett.lennuk.entity.BookedSeat;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.event.OccupancyChangedEvent;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.repository.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for ingesting bookings in bulk from partner feeds, one JSON booking record per line.
+ *
+ * The body is parsed line by line and processed in chunks. The records of a chunk are grouped
+ * by flight and validated in memory against the booked seats, pending journal reservations and
+ * the records accepted before them. Each record is accepted or rejected as a whole.
+ *
+ * With the booking journal enabled, the accepted bookings of a chunk are appended to it in one
+ * group commit and held as seat reservations, exactly like single bookings, and are only reported
+ * as accepted once durable; the checkpointer applies them to the database. Without the journal
+ * they are written to the database in one transaction per chunk.
+ */
+@Service
+@Slf4j
+public class BulkBookingService {
+    public static final String STATUS_ACCEPTED = "ACCEPTED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    private final FlightRepository flightRepository;
+    private final BookingJournal bookingJournal;
+    private final SeatReservations seatReservations;
+    private final TicketQuotas ticketQuotas;
+    private final ClusterInvalidationService clusterInvalidationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader recordReader;
+    private final int chunkSize;
+
+    public BulkBookingService(
+            FlightRepository flightRepository,
+            BookingJournal bookingJournal,
+            SeatReservations seatReservations,
+            TicketQuotas ticketQuotas,
+            ClusterInvalidationService clusterInvalidationService,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${booking.bulk.chunk-size:2000}") int chunkSize) {
+        this.flightRepository = flightRepository;
+        this.bookingJournal = bookingJournal;
+        this.seatReservations = seatReservations;
+        this.ticketQuotas = ticketQuotas;
+        this.clusterInvalidationService = clusterInvalidationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.recordReader = objectMapper.readerFor(BulkBookingRecordDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+    * Reads booking records from the stream and books the valid ones.
+    *
+    * @param in The newline-delimited JSON booking records. The stream is not closed.
+    * @return A BulkBookingReportDto with the outcome of every record, in input order.
+    * @throws IOException If reading from the stream fails.
+    */
+    public BulkBookingReportDto ingest(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        List<BulkBookingResultDto> results = new ArrayList<>();
+        List<PendingRecord> chunk = new ArrayList<>(chunkSize);
+        long bookedSeats = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            BulkBookingResultDto result = BulkBookingResultDto.builder().line(lineNumber).build();
+            results.add(result);
+            BulkBookingRecordDto record;
+            try {
+                record = recordReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                reject(result, "Malformed booking record");
+                continue;
+            }
+            result.setReference(record.getReference());
+            result.setFlightId(record.getFlightId());
+            PendingRecord pending = normalize(record, result);
+            if (pending != null) {
+                chunk.add(pending);
+            }
+            if (chunk.size() >= chunkSize) {
+                bookedSeats += processChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            bookedSeats += processChunk(chunk);
+        }
+
+        long accepted = results.stream().filter(result -> STATUS_ACCEPTED.equals(result.getStatus())).count();
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Ingested {} bulk booking records ({} accepted, {} seats) in {} ms", results.size(), accepted,
+                bookedSeats, durationMs);
+        return BulkBookingReportDto.builder()
+                .received(results.size())
+                .accepted(accepted)
+                .rejected(results.size() - accepted)
+                .bookedSeats(bookedSeats)
+                .durationMs(durationMs)
+                .results(results)
+                .build();
+    }
+
+    private PendingRecord normalize(BulkBookingRecordDto record, BulkBookingResultDto result) {
+        if (record.getFlightId() == null) {
+            reject(result, "Flight ID is missing");
+            return null;
+        }
+        // Ticket limits are per customer, and a feed has no client address to fall back to
+        if (record.getCustomerId() == null || record.getCustomerId().isBlank()) {
+            reject(result, "Customer ID is missing");
+            return null;
+        }
+        if (record.getCustomerId().length() > BookedSeat.MAX_CUSTOMER_ID_LENGTH) {
+            reject(result, "Customer ID is longer than " + BookedSeat.MAX_CUSTOMER_ID_LENGTH + " characters");
+            return null;
+        }
+        List<String> seatNumbers = normalizeSeats(record.getSeatNumbers());
+        List<String> returnSeatNumbers = normalizeSeats(record.getReturnSeatNumbers());
+        if (seatNumbers.isEmpty() && returnSeatNumbers.isEmpty()
+                || seatNumbers.size() > SeatPreference.MAX_NUMBER_OF_SEATS
+                || returnSeatNumbers.size() > SeatPreference.MAX_NUMBER_OF_SEATS) {
+            reject(result, "Between 1 and " + SeatPreference.MAX_NUMBER_OF_SEATS + " seats must be booked per leg");
+            return null;
+        }
+        if (new HashSet<>(seatNumbers).size() != seatNumbers.size()
+                || new HashSet<>(returnSeatNumbers).size() != returnSeatNumbers.size()) {
+            reject(result, "Each seat can only be booked once per record");
+            return null;
+        }
+        return new PendingRecord(record, seatNumbers, returnSeatNumbers, result);
+    }
+
+    private static List<String> normalizeSeats(List<String> seats) {
+        if (seats == null) {
+            return List.of();
+        }
+        return seats.stream()
+                .map(seat -> seat == null ? "" : seat.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    private long processChunk(List<PendingRecord> chunk) {
+        Map<Long, List<PendingRecord>> recordsByFlight = new LinkedHashMap<>();
+        for (PendingRecord record : chunk) {
+            recordsByFlight.computeIfAbsent(record.record().getFlightId(), id -> new ArrayList<>()).add(record);
+        }
+        return bookingJournal.isEnabled() ? journalChunk(recordsByFlight) : storeChunk(recordsByFlight);
+    }
+
+    /**
+    * Validates the records of one chunk while holding the locks of their flights, reserves the
+    * seats of the accepted ones and appends them to the booking journal in one group commit.
+    * The locks are released before waiting for the commit, as for single bookings.
+    *
+    * @return The number of seats booked.
+    */
+    private long journalChunk(Map<Long, List<PendingRecord>> recordsByFlight) {
+        List<Lock> locks = seatReservations.locksFor(recordsByFlight.keySet());
+        locks.forEach(Lock::lock);
+        List<PendingRecord> accepted = new ArrayList<>();
+        long bookedSeats = 0;
+        CompletableFuture<Long> commit;
+        try {
+            List<Flight> flights = transactionTemplate.execute(
+                    status -> flightRepository.findAllByIdWithBookedSeats(recordsByFlight.keySet()));
+            bookedSeats = validateChunk(recordsByFlight, flights, accepted, false);
+            List<BookingJournal.Booking> bookings = new ArrayList<>(accepted.size());
+            for (PendingRecord record : accepted) {
+                for (Leg leg : Leg.values()) {
+                    seatReservations.reserve(record.record().getFlightId(), leg, record.seatNumbers(leg));
+                }
+                bookings.add(new BookingJournal.Booking(record.record().getFlightId(),
+                        record.record().getCustomerId(), record.seatNumbers(), record.returnSeatNumbers()));
+            }
+            if (!accepted.isEmpty()) {
+                eventPublisher.publishEvent(new OccupancyChangedEvent(recordsByFlight.keySet()));
+            }
+            commit = bookingJournal.appendAll(bookings);
+        } catch (RuntimeException e) {
+            commit = CompletableFuture.failedFuture(e);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+
+        // Wait for the group commit outside the locks, so concurrent bookings share the flush
+        try {
+            commit.join();
+            return bookedSeats;
+        } catch (CompletionException e) {
+            log.error("Failed to journal a chunk of {} accepted bulk booking records", accepted.size(), e.getCause());
+            for (PendingRecord record : accepted) {
+                for (Leg leg : Leg.values()) {
+                    seatReservations.release(record.record().getFlightId(), leg, record.seatNumbers(leg));
+                }
+                releaseTickets(record);
+                reject(record.result(), "Booking could not be made durable");
+            }
+            if (!accepted.isEmpty()) {
+                eventPublisher.publishEvent(new OccupancyChangedEvent(recordsByFlight.keySet()));
+            }
+            return 0;
+        }
+    }
+
+    /**
+    * Validates and books the records of one chunk in one transaction while holding the locks of
+    * their flights and, against other instances of a cluster, their flight rows.
+    *
+    * @return The number of seats booked.
+    */
+    private long storeChunk(Map<Long, List<PendingRecord>> recordsByFlight) {
+        List<Lock> locks = seatReservations.locksFor(recordsByFlight.keySet());
+        locks.forEach(Lock::lock);
+        List<PendingRecord> accepted = new ArrayList<>();
+        try {
+            long bookedSeats = transactionTemplate.execute(status -> {
+                // Other instances of a cluster book without this instance's locks
+                flightRepository.lockAllById(recordsByFlight.keySet());
+                List<Flight> flights = flightRepository.findAllByIdWithBookedSeats(recordsByFlight.keySet());
+                long seats = validateChunk(recordsByFlight, flights, accepted, true);
+                if (!accepted.isEmpty()) {
+                    clusterInvalidationService.recordChanges(flights.stream().map(Flight::getId).toList());
+                }
+                return seats;
+            });
+            if (!accepted.isEmpty()) {
+                eventPublisher.publishEvent(new OccupancyChangedEvent(recordsByFlight.keySet()));
+            }
+            return bookedSeats;
+        } catch (RuntimeException e) {
+            log.error("Failed to store a chunk of {} accepted bulk booking records", accepted.size(), e);
+            for (PendingRecord record : accepted) {
+                releaseTickets(record);
+                reject(record.result(), "Booking could not be stored");
+            }
+            return 0;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+    * Validates the records of a chunk against their flights, in input order per flight.
+    *
+    * @param apply Whether to add the seats of accepted records to their flights.
+    * @return The number of seats of the accepted records.
+    */
+    private long validateChunk(Map<Long, List<PendingRecord>> recordsByFlight, List<Flight> flights,
+            List<PendingRecord> accepted, boolean apply) {
+        Map<Long, Flight> flightsById = new HashMap<>();
+        flights.forEach(flight -> flightsById.put(flight.getId(), flight));
+        long seats = 0;
+        for (Map.Entry<Long, List<PendingRecord>> entry : recordsByFlight.entrySet()) {
+            Flight flight = flightsById.get(entry.getKey());
+            if (flight == null) {
+                entry.getValue().forEach(record -> reject(record.result(), "Flight not found"));
+                continue;
+            }
+            seats += bookFlight(flight, entry.getValue(), accepted, apply);
+        }
+        return seats;
+    }
+
+    private long bookFlight(Flight flight, List<PendingRecord> records, List<PendingRecord> accepted,
+            boolean apply) {
+        SeatLayout layout = flight.getLayout();
+        Map<Leg, Set<String>> occupied = new EnumMap<>(Leg.class);
+        for (Leg leg : Leg.values()) {
+            occupied.put(leg, new HashSet<>(seatReservations.pendingSeats(flight.getId(), leg)));
+        }
+        for (BookedSeat seat : flight.getBookedSeats()) {
+            occupied.get(seat.getLeg()).add(seat.getSeatNumber());
+        }
+
+        long seats = 0;
+        for (PendingRecord record : records) {
+            String reason = !record.returnSeatNumbers().isEmpty() && !flight.hasReturnLeg()
+                    ? "This flight has no return leg"
+                    : null;
+            for (Leg leg : Leg.values()) {
+                if (reason == null) {
+                    reason = validateSeats(layout, occupied.get(leg), record.seatNumbers(leg));
+                }
+            }
+            if (reason == null && ticketQuotas.tryAcquire(flight.getId(), flight.getDepartureDate(),
+                            record.record().getCustomerId(), record.tickets()) < 0) {
+                reason = "Customer would exceed " + TicketQuotas.MAX_TICKETS_PER_FLIGHT + " tickets on this flight";
+            }
+            if (reason != null) {
+                reject(record.result(), reason);
+                continue;
+            }
+            for (Leg leg : Leg.values()) {
+                for (String seatNumber : record.seatNumbers(leg)) {
+                    occupied.get(leg).add(seatNumber);
+                    if (apply) {
+                        flight.addBookedSeat(seatNumber, leg, record.record().getCustomerId());
+                    }
+                }
+                seats += record.seatNumbers(leg).size();
+            }
+            record.result().setStatus(STATUS_ACCEPTED);
+            accepted.add(record);
+        }
+        return seats;
+    }
+
+    private String validateSeats(SeatLayout layout, Set<String> occupied, List<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            if (!BookingService.SEAT_NUMBER.matcher(seatNumber).matches() || layout.indexOf(seatNumber) < 0) {
+                return "Seat " + seatNumber + " does not exist on this flight";
+            }
+            if (occupied.contains(seatNumber)) {
+                return "Seat " + seatNumber + " is already booked";
+            }
+        }
+        return null;
+    }
+
+    private void releaseTickets(PendingRecord record) {
+        ticketQuotas.release(record.record().getFlightId(), record.record().getCustomerId(), record.tickets());
+    }
+
+    private void reject(BulkBookingResultDto result, String reason) {
+        result.setStatus(STATUS_REJECTED);
+        result.setReason(reason);
+    }
+
+    private record PendingRecord(BulkBookingRecordDto record, List<String> seatNumbers,
+            List<String> returnSeatNumbers, BulkBookingResultDto result) {
+
+        List<String> seatNumbers(Leg leg) {
+            return leg == Leg.RETURN ? returnSeatNumbers : seatNumbers;
+        }
+
+        // A ticket covers a passenger's seats on both legs
+        int tickets() {
+            return Math.max(seatNumbers.size(), returnSeatNumbers.size());
+        }
+    }
+}
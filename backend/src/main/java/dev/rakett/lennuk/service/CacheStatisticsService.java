@@ -0,0 +1,73 @@
+package dev.rakett.lennuk.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.CacheStatisticsDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service for reporting Hibernate second-level and query cache statistics.
+ * Figures are only collected when hibernate.generate_statistics is enabled.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+    * Collects hit, miss and put counts for the second-level cache and each of its regions.
+    *
+    * @return A CacheStatisticsDto describing the current cache state.
+    */
+    public CacheStatisticsDto getStatistics() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        boolean enabled = sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+
+        List<CacheStatisticsDto.RegionStatistics> regions = Arrays
+                .stream(statistics.getSecondLevelCacheRegionNames())
+                .map(name -> toRegionStatistics(name, statistics.getCacheRegionStatistics(name)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return CacheStatisticsDto.builder()
+                .secondLevelCacheEnabled(enabled)
+                .hitCount(statistics.getSecondLevelCacheHitCount())
+                .missCount(statistics.getSecondLevelCacheMissCount())
+                .putCount(statistics.getSecondLevelCachePutCount())
+                .queryCacheHitCount(statistics.getQueryCacheHitCount())
+                .queryCacheMissCount(statistics.getQueryCacheMissCount())
+                .databaseQueryCount(statistics.getPrepareStatementCount())
+                .regions(regions)
+                .build();
+    }
+
+    /**
+     * Evicts all entities, collections and cached queries, e.g. after writes made outside Hibernate.
+     */
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAll();
+    }
+
+    private CacheStatisticsDto.RegionStatistics toRegionStatistics(String name, CacheRegionStatistics region) {
+        if (region == null) {
+            return null;
+        }
+        return CacheStatisticsDto.RegionStatistics.builder()
+                .region(name)
+                .hitCount(region.getHitCount())
+                .missCount(region.getMissCount())
+                .putCount(region.getPutCount())
+                .elementCount(region.getElementCountInMemory())
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package dev.rakett.lennuk.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.entity.InventoryChange;
+import dev.rakett.lennuk.event.OccupancyChangedEvent;
+import dev.rakett.lennuk.repository.InventoryChangeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-process caches of several backend instances sharing one database consistent.
+ *
+ * Every booking written to the database also inserts an inventory change row per affected
+ * flight, in the same transaction. Each instance polls for rows written by other instances
+ * that it has not applied yet, evicts those flights from the Hibernate second-level cache and
+ * publishes an {@link OccupancyChangedEvent}, so that in-memory read models keyed by occupancy
+ * are refreshed for the affected flights only.
+ *
+ * Change IDs are assigned at insert but become visible at commit, so a lower ID can appear after
+ * a higher one. The poll cursor therefore only advances over contiguous applied IDs; changes
+ * above a gap are applied and remembered, and a gap is only given up on (as an ID lost to a
+ * rolled-back transaction) once it has stayed open for cluster.gap-timeout-ms.
+ *
+ * Disabled unless cluster.enabled is set; see the "cluster" profile.
+ */
+@Service
+@Slf4j
+public class ClusterInvalidationService {
+    private static final String BOOKED_SEATS_ROLE = Flight.class.getName() + ".bookedSeats";
+
+    private final InventoryChangeRepository inventoryChangeRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration retention;
+    private final long gapTimeoutNanos;
+
+    // Every change up to this ID has been applied or given up on; -1 until started
+    private volatile long appliedUpTo = -1;
+    // Applied changes above the first gap, and when the cursor first waited at that gap
+    private final NavigableSet<Long> appliedAbove = new TreeSet<>();
+    private long gapSince = -1;
+
+    public ClusterInvalidationService(
+            InventoryChangeRepository inventoryChangeRepository,
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${cluster.enabled:false}") boolean enabled,
+            @Value("${cluster.node-id:}") String nodeId,
+            @Value("${cluster.change-retention-ms:600000}") long retentionMs,
+            @Value("${cluster.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.inventoryChangeRepository = inventoryChangeRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.retention = Duration.ofMillis(retentionMs);
+        this.gapTimeoutNanos = Duration.ofMillis(gapTimeoutMs).toNanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+    * Records changes to the given flights. Must be called in the transaction that changes them,
+    * so other instances never see the change row without the change.
+    *
+    * @param flightIds The IDs of the changed flights.
+    */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Collection<Long> flightIds) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (Long flightId : flightIds) {
+            InventoryChange change = new InventoryChange();
+            change.setFlightId(flightId);
+            change.setNodeId(nodeId);
+            change.setCreatedAt(now);
+            inventoryChangeRepository.save(change);
+        }
+    }
+
+    /**
+    * Starts polling from the newest change, since everything before it is already in the database
+    * this instance has just started reading from.
+    */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (enabled) {
+            appliedUpTo = inventoryChangeRepository.findMaxId();
+            log.info("Cluster invalidation enabled for node {}, starting after change {}", nodeId, appliedUpTo);
+        }
+    }
+
+    /**
+    * Applies changes made by other instances that have become visible since the last poll,
+    * including changes with IDs below ones already applied.
+    */
+    @Scheduled(fixedDelayString = "${cluster.poll-interval-ms:200}")
+    public synchronized void poll() {
+        if (!enabled || appliedUpTo < 0) {
+            return;
+        }
+        List<InventoryChange> changes = inventoryChangeRepository.findByIdGreaterThanOrderByIdAsc(appliedUpTo);
+        Set<Long> flightIds = new LinkedHashSet<>();
+        for (InventoryChange change : changes) {
+            if (appliedAbove.add(change.getId()) && !nodeId.equals(change.getNodeId())) {
+                flightIds.add(change.getFlightId());
+            }
+        }
+        advanceCursor();
+        if (flightIds.isEmpty()) {
+            return;
+        }
+
+        evict(flightIds);
+        eventPublisher.publishEvent(new OccupancyChangedEvent(flightIds));
+        log.debug("Invalidated {} flights changed by other instances", flightIds.size());
+    }
+
+    /**
+    * Moves the cursor over contiguous applied changes, and over a gap once it has timed out.
+    */
+    private void advanceCursor() {
+        long now = System.nanoTime();
+        while (!appliedAbove.isEmpty()) {
+            long first = appliedAbove.first();
+            if (first == appliedUpTo + 1) {
+                appliedAbove.pollFirst();
+                appliedUpTo = first;
+                gapSince = -1;
+                continue;
+            }
+            // The changes between the cursor and first are uncommitted, or their IDs were rolled back
+            if (gapSince < 0) {
+                gapSince = now;
+            }
+            if (now - gapSince < gapTimeoutNanos) {
+                return;
+            }
+            log.debug("Giving up on changes {} to {}", appliedUpTo + 1, first - 1);
+            appliedUpTo = first - 1;
+            gapSince = -1;
+        }
+    }
+
+    /**
+    * Deletes change rows that every running instance has long since seen.
+    */
+    @Scheduled(fixedDelayString = "${cluster.change-retention-ms:600000}")
+    @Transactional
+    public void prune() {
+        if (enabled) {
+            inventoryChangeRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        }
+    }
+
+    private void evict(Collection<Long> flightIds) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (Long flightId : flightIds) {
+            sessionFactory.getCache().evictEntityData(Flight.class, flightId);
+            sessionFactory.getCache().evictCollectionData(BOOKED_SEATS_ROLE, flightId);
+        }
+        // Cached query results are invalidated by local table timestamps only, which remote writes do not update
+        sessionFactory.getCache().evictQueryRegions();
+    }
+}
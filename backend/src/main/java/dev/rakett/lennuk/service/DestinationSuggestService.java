@@ -0,0 +1,190 @@
+package dev.rakett.lennuk.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.DestinationSuggestionDto;
+import dev.rakett.lennuk.dto.FlightDto;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for suggesting airports while the user types, by prefix of their IATA code or of any
+ * word of their detailed name (e.g. "FIUM" finds FCO via "ROME FIUMICINO").
+ *
+ * Suggestions come from an immutable index of sorted keys, rebuilt on every inventory refresh,
+ * so queries never touch the database.
+ * Airports are numbered by cheapest fare, so the best suggestions for a prefix are the lowest
+ * airport numbers in its key range, found with one binary search and a scan of that range.
+ */
+@Service
+@Slf4j
+public class DestinationSuggestService {
+
+    private volatile SuggestIndex index = SuggestIndex.EMPTY;
+
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        long start = System.nanoTime();
+        index = SuggestIndex.build(event.flights());
+        log.debug("Built suggestion index of {} airports and {} keys in {} us", index.airports.length,
+                index.keys.length, (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+    * Suggests airports whose code or a word of whose name starts with the query.
+    *
+    * @param query The typed prefix, matched case-insensitively.
+    * @param limit Maximum number of suggestions.
+    * @return The matching airports, cheapest fare first.
+    */
+    public List<DestinationSuggestionDto> suggest(String query, int limit) {
+        SuggestIndex current = index;
+        String prefix = SuggestIndex.normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        // Lowest airport numbers in the key range, kept sorted; a number can appear under several keys
+        int[] best = new int[limit];
+        int count = 0;
+        for (int i = current.firstKeyAtOrAfter(prefix); i < current.keys.length
+                && current.keys[i].startsWith(prefix); i++) {
+            int airport = current.airportOfKey[i];
+            if (count == limit && airport >= best[count - 1]) {
+                continue;
+            }
+            int position = Arrays.binarySearch(best, 0, count, airport);
+            if (position >= 0) {
+                continue;
+            }
+            position = -position - 1;
+            int end = Math.min(count, limit - 1);
+            System.arraycopy(best, position, best, position + 1, end - position);
+            best[position] = airport;
+            count = Math.min(count + 1, limit);
+        }
+
+        List<DestinationSuggestionDto> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Airport airport = current.airports[best[i]];
+            suggestions.add(DestinationSuggestionDto.builder()
+                    .code(airport.code)
+                    .name(airport.name)
+                    .cheapestPrice(airport.cheapestPrice)
+                    .flightCount(airport.flightCount)
+                    .build());
+        }
+        return suggestions;
+    }
+
+    private static final class Airport {
+        private final String code;
+        private String name;
+        private BigDecimal cheapestPrice;
+        private int flightCount;
+
+        private Airport(String code) {
+            this.code = code;
+        }
+
+        private void add(String detailedName, BigDecimal price) {
+            if (name == null) {
+                name = detailedName;
+            }
+            if (price != null && (cheapestPrice == null || price.compareTo(cheapestPrice) < 0)) {
+                cheapestPrice = price;
+            }
+            flightCount++;
+        }
+    }
+
+    private static final class SuggestIndex {
+        static final SuggestIndex EMPTY = new SuggestIndex(new Airport[0], new String[0], new int[0]);
+
+        // Ordered by cheapest fare, so a lower number is a better suggestion
+        private final Airport[] airports;
+        private final String[] keys;
+        private final int[] airportOfKey;
+
+        private SuggestIndex(Airport[] airports, String[] keys, int[] airportOfKey) {
+            this.airports = airports;
+            this.keys = keys;
+            this.airportOfKey = airportOfKey;
+        }
+
+        static SuggestIndex build(Iterable<FlightDto> flights) {
+            Map<String, Airport> byCode = new LinkedHashMap<>();
+            for (FlightDto flight : flights) {
+                if (flight.getOrigin() != null) {
+                    byCode.computeIfAbsent(flight.getOrigin(), Airport::new)
+                            .add(flight.getOriginDetailedName(), flight.getBasePrice());
+                }
+                if (flight.getDestination() != null) {
+                    byCode.computeIfAbsent(flight.getDestination(), Airport::new)
+                            .add(flight.getDestinationDetailedName(), flight.getBasePrice());
+                }
+            }
+            Airport[] airports = byCode.values().stream()
+                    .sorted(Comparator.comparing((Airport airport) -> airport.cheapestPrice,
+                            Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(airport -> airport.code))
+                    .toArray(Airport[]::new);
+
+            List<String> keyList = new ArrayList<>();
+            List<Integer> airportList = new ArrayList<>();
+            for (int i = 0; i < airports.length; i++) {
+                keyList.add(normalize(airports[i].code));
+                airportList.add(i);
+                if (airports[i].name != null) {
+                    // The full name matches multi-word queries, each word matches on its own
+                    keyList.add(normalize(airports[i].name));
+                    airportList.add(i);
+                    for (String word : normalize(airports[i].name).split("[^\\p{L}\\p{N}]+")) {
+                        if (!word.isEmpty()) {
+                            keyList.add(word);
+                            airportList.add(i);
+                        }
+                    }
+                }
+            }
+            Integer[] order = new Integer[keyList.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparing(keyList::get));
+            String[] keys = new String[order.length];
+            int[] airportOfKey = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                airportOfKey[i] = airportList.get(order[i]);
+            }
+            return new SuggestIndex(airports, keys, airportOfKey);
+        }
+
+        int firstKeyAtOrAfter(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        static String normalize(String value) {
+            return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+}
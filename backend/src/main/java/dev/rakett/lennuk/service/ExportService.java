@@ -0,0 +1,123 @@
+package dev.rakett.lennuk.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import dev.rakett.lennuk.dto.FlightExportDto;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.entity.OccupancyCounters;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+import dev.rakett.lennuk.repository.FlightRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service for exporting the flight catalogue with occupancy as newline-delimited JSON.
+ *
+ * Flights and booked seats are read through two database cursors, both ordered by flight ID,
+ * and merged as they are read, so the export needs no per-flight queries. Every flight is
+ * detached once written, keeping memory use constant however large the catalogue is.
+ * Occupancy reflects the bookings checkpointed into the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private static final int FLUSH_EVERY = 256;
+
+    private final FlightRepository flightRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+    * Writes one JSON line per flight to the output stream.
+    *
+    * @param out           The stream to write to. It is flushed regularly but not closed.
+    * @param includeBitmap Whether to include the booked seat bitmap of each flight.
+    * @return The number of flights written.
+    * @throws IOException If writing to the stream fails.
+    */
+    @Transactional(readOnly = true)
+    public long exportFlights(OutputStream out, boolean includeBitmap) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(FlightExportDto.class);
+        long count = 0;
+        try (Stream<Flight> flights = flightRepository.streamAllOrderById();
+                Stream<Object[]> bookedSeats = includeBitmap
+                        ? flightRepository.streamBookedSeatsOrderByFlightId()
+                        : Stream.empty()) {
+            Iterator<Object[]> seats = bookedSeats.iterator();
+            Object[] pendingSeat = seats.hasNext() ? seats.next() : null;
+
+            for (Iterator<Flight> iterator = flights.iterator(); iterator.hasNext();) {
+                Flight flight = iterator.next();
+                FlightExportDto line = toDto(flight);
+
+                if (includeBitmap) {
+                    SeatLayout layout = flight.getLayout();
+                    byte[] bitmap = new byte[(layout.getTotalSeats() + 7) / 8];
+                    byte[] returnBitmap = new byte[bitmap.length];
+                    // Skip seats of flights that were deleted between the two cursors
+                    while (pendingSeat != null && (Long) pendingSeat[0] < flight.getId()) {
+                        pendingSeat = seats.hasNext() ? seats.next() : null;
+                    }
+                    while (pendingSeat != null && pendingSeat[0].equals(flight.getId())) {
+                        int index = layout.indexOf((String) pendingSeat[1]);
+                        if (index >= 0) {
+                            byte[] legBitmap = pendingSeat[2] == Leg.RETURN ? returnBitmap : bitmap;
+                            legBitmap[index >> 3] |= (byte) (1 << (index & 7));
+                        }
+                        pendingSeat = seats.hasNext() ? seats.next() : null;
+                    }
+                    line.setOccupancyBitmap(Base64.getEncoder().encodeToString(bitmap));
+                    if (flight.hasReturnLeg()) {
+                        line.setReturnOccupancyBitmap(Base64.getEncoder().encodeToString(returnBitmap));
+                    }
+                }
+
+                out.write(writer.writeValueAsBytes(line));
+                out.write('\n');
+                entityManager.detach(flight);
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private FlightExportDto toDto(Flight flight) {
+        SeatLayout layout = flight.getLayout();
+        OccupancyCounters occupancy = flight.getOccupancy();
+        OccupancyCounters returnOccupancy = flight.getReturnOccupancy();
+        int totalSeats = layout.getTotalSeats();
+        return FlightExportDto.builder()
+                .id(flight.getId())
+                .origin(flight.getOrigin())
+                .destination(flight.getDestination())
+                .departureDate(flight.getDepartureDate())
+                .returnDate(flight.getReturnDate())
+                .basePrice(flight.getBasePrice())
+                .seatLayout(flight.getSeatLayout() != null ? flight.getSeatLayout() : SeatLayout.DEFAULT_LAYOUT)
+                .rows(layout.getRows())
+                .seatsPerRow(layout.getSeatsPerRow())
+                .totalSeats(totalSeats)
+                .bookedSeats(occupancy.getBookedCount())
+                .bookedWindowSeats(occupancy.getBookedWindowCount())
+                .bookedExtraLegroomSeats(occupancy.getBookedExtraLegroomCount())
+                .bookedExitRowSeats(occupancy.getBookedExitRowCount())
+                .loadFactor(totalSeats > 0 ? (double) occupancy.getBookedCount() / totalSeats : 0)
+                .returnBookedSeats(returnOccupancy.getBookedCount())
+                .returnLoadFactor(totalSeats > 0 ? (double) returnOccupancy.getBookedCount() / totalSeats : 0)
+                .build();
+    }
+}
@@ -0,0 +1,295 @@
+package dev.rakett.lennuk.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.CheapestFareDto;
+import dev.rakett.lennuk.dto.FareCalendarDto;
+import dev.rakett.lennuk.dto.FlightDto;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.util.MetroAreas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service maintaining a materialized fare calendar: the lowest base price per destination
+ * per departure day, for every origin airport and metropolitan area.
+ *
+ * The read side is an immutable set of primitive arrays per origin: per destination the sorted
+ * departure days with their lowest fares, plus destination rankings by cheapest fare for every
+ * month and overall. Calendar lookups are binary searches and top-k queries read a prefix of a
+ * ranking. The calendars are rebuilt on each inventory refresh.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FareCalendarService {
+    private static final int ALL_MONTHS = Integer.MIN_VALUE;
+
+    private final MetroAreas metroAreas;
+
+    // Write side, guarded by this: origin -> destination -> flight ID -> fare
+    private final Map<String, Map<String, Map<Long, Fare>>> fares = new HashMap<>();
+    private final Map<String, String> destinationNames = new HashMap<>();
+
+    // Read side
+    private final Map<String, OriginFares> calendars = new ConcurrentHashMap<>();
+
+    @EventListener
+    public synchronized void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        long start = System.nanoTime();
+        fares.clear();
+        for (FlightDto flight : event.flights()) {
+            add(flight);
+        }
+        calendars.keySet().retainAll(fares.keySet());
+        for (Map.Entry<String, Map<String, Map<Long, Fare>>> origin : fares.entrySet()) {
+            calendars.put(origin.getKey(), OriginFares.build(origin.getValue(), destinationNames));
+        }
+        log.debug("Rebuilt fare calendars of {} origins in {} us", fares.size(),
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+    * Retrieves the lowest fare per departure day from an origin, optionally limited to one
+    * destination and one month.
+    *
+    * @param origin      Origin airport or city code.
+    * @param destination (Optional) Destination code.
+    * @param month       (Optional) Month of departure.
+    * @return One FareCalendarDto per destination with at least one fare in range.
+    */
+    public List<FareCalendarDto> getCalendar(String origin, String destination, YearMonth month) {
+        OriginFares calendar = calendars.get(MetroAreas.normalize(origin));
+        if (calendar == null) {
+            return Collections.emptyList();
+        }
+        int from = month != null ? (int) month.atDay(1).toEpochDay() : Integer.MIN_VALUE;
+        int to = month != null ? (int) month.atEndOfMonth().toEpochDay() : Integer.MAX_VALUE;
+
+        List<FareCalendarDto> result = new ArrayList<>();
+        if (destination != null) {
+            int index = Arrays.binarySearch(calendar.destinations, MetroAreas.normalize(destination));
+            if (index >= 0) {
+                addCalendar(result, origin, calendar, index, from, to);
+            }
+        } else {
+            for (int index = 0; index < calendar.destinations.length; index++) {
+                addCalendar(result, origin, calendar, index, from, to);
+            }
+        }
+        return result;
+    }
+
+    /**
+    * Retrieves the cheapest destinations from an origin, cheapest first.
+    *
+    * @param origin Origin airport or city code.
+    * @param month  (Optional) Month of departure.
+    * @param limit  Maximum number of destinations to return.
+    * @return Up to limit CheapestFareDto objects.
+    */
+    public List<CheapestFareDto> getCheapest(String origin, YearMonth month, int limit) {
+        OriginFares calendar = calendars.get(MetroAreas.normalize(origin));
+        if (calendar == null) {
+            return Collections.emptyList();
+        }
+        int monthIndex = Arrays.binarySearch(calendar.months, month != null ? monthKey(month) : ALL_MONTHS);
+        if (monthIndex < 0) {
+            return Collections.emptyList();
+        }
+        Ranking ranking = calendar.rankings[monthIndex];
+        int count = Math.min(limit, ranking.destinations.length);
+        List<CheapestFareDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int destination = ranking.destinations[i];
+            result.add(CheapestFareDto.builder()
+                    .destination(calendar.destinations[destination])
+                    .destinationDetailedName(calendar.names[destination])
+                    .departureDate(LocalDate.ofEpochDay(ranking.days[i]).toString())
+                    .price(toPrice(ranking.cents[i]))
+                    .build());
+        }
+        return result;
+    }
+
+    private void addCalendar(List<FareCalendarDto> result, String origin, OriginFares calendar, int index,
+            int from, int to) {
+        int[] days = calendar.days[index];
+        long[] cents = calendar.cents[index];
+        int first = lowerBound(days, from);
+        int last = lowerBound(days, to == Integer.MAX_VALUE ? to : to + 1);
+        if (first >= last) {
+            return;
+        }
+        List<FareCalendarDto.DayFare> dayFares = new ArrayList<>(last - first);
+        for (int i = first; i < last; i++) {
+            dayFares.add(new FareCalendarDto.DayFare(LocalDate.ofEpochDay(days[i]).toString(), toPrice(cents[i])));
+        }
+        result.add(FareCalendarDto.builder()
+                .origin(MetroAreas.normalize(origin))
+                .destination(calendar.destinations[index])
+                .destinationDetailedName(calendar.names[index])
+                .days(dayFares)
+                .build());
+    }
+
+    private void add(FlightDto flight) {
+        Fare fare = Fare.of(flight);
+        if (fare == null || flight.getDestination() == null) {
+            return;
+        }
+        String destination = MetroAreas.normalize(flight.getDestination());
+        if (flight.getDestinationDetailedName() != null) {
+            destinationNames.put(destination, flight.getDestinationDetailedName());
+        }
+        for (String origin : new HashSet<>(metroAreas.indexKeys(flight.getOrigin()))) {
+            fares.computeIfAbsent(origin, o -> new HashMap<>())
+                    .computeIfAbsent(destination, d -> new HashMap<>())
+                    .put(flight.getId(), fare);
+        }
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static BigDecimal toPrice(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record Fare(int epochDay, long cents) {
+        static Fare of(FlightDto flight) {
+            if (flight.getBasePrice() == null || flight.getDepartureDate() == null) {
+                return null;
+            }
+            try {
+                int day = (int) LocalDate.parse(flight.getDepartureDate()).toEpochDay();
+                long cents = flight.getBasePrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                return new Fare(day, cents);
+            } catch (DateTimeParseException | ArithmeticException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Destinations of a ranking ordered by their lowest fare, with the day that fare departs.
+     */
+    private record Ranking(int[] destinations, int[] days, long[] cents) {
+    }
+
+    /**
+     * Immutable fare calendar of one origin.
+     */
+    private static final class OriginFares {
+        private final String[] destinations;
+        private final String[] names;
+        private final int[][] days;
+        private final long[][] cents;
+        // Sorted month keys (ALL_MONTHS first) and the destination ranking of each month
+        private final int[] months;
+        private final Ranking[] rankings;
+
+        private OriginFares(String[] destinations, String[] names, int[][] days, long[][] cents, int[] months,
+                Ranking[] rankings) {
+            this.destinations = destinations;
+            this.names = names;
+            this.days = days;
+            this.cents = cents;
+            this.months = months;
+            this.rankings = rankings;
+        }
+
+        static OriginFares build(Map<String, Map<Long, Fare>> byDestination, Map<String, String> names) {
+            String[] destinations = byDestination.keySet().toArray(String[]::new);
+            Arrays.sort(destinations);
+            String[] destinationNames = new String[destinations.length];
+            int[][] days = new int[destinations.length][];
+            long[][] cents = new long[destinations.length][];
+            // month key -> destination index -> cheapest fare that month
+            TreeMap<Integer, Map<Integer, Fare>> monthly = new TreeMap<>();
+
+            for (int d = 0; d < destinations.length; d++) {
+                destinationNames[d] = names.get(destinations[d]);
+                TreeMap<Integer, Long> minByDay = new TreeMap<>();
+                for (Fare fare : byDestination.get(destinations[d]).values()) {
+                    minByDay.merge(fare.epochDay(), fare.cents(), Math::min);
+                }
+                days[d] = new int[minByDay.size()];
+                cents[d] = new long[minByDay.size()];
+                int i = 0;
+                for (Map.Entry<Integer, Long> entry : minByDay.entrySet()) {
+                    days[d][i] = entry.getKey();
+                    cents[d][i] = entry.getValue();
+                    Fare fare = new Fare(entry.getKey(), entry.getValue());
+                    YearMonth month = YearMonth.from(LocalDate.ofEpochDay(entry.getKey()));
+                    keepCheapest(monthly.computeIfAbsent(monthKey(month), m -> new HashMap<>()), d, fare);
+                    keepCheapest(monthly.computeIfAbsent(ALL_MONTHS, m -> new HashMap<>()), d, fare);
+                    i++;
+                }
+            }
+
+            int[] months = new int[monthly.size()];
+            Ranking[] rankings = new Ranking[monthly.size()];
+            int m = 0;
+            for (Map.Entry<Integer, Map<Integer, Fare>> entry : monthly.entrySet()) {
+                months[m] = entry.getKey();
+                rankings[m] = rank(entry.getValue());
+                m++;
+            }
+            return new OriginFares(destinations, destinationNames, days, cents, months, rankings);
+        }
+
+        private static void keepCheapest(Map<Integer, Fare> cheapest, int destination, Fare fare) {
+            cheapest.merge(destination, fare, (a, b) -> b.cents() < a.cents() ? b : a);
+        }
+
+        private static Ranking rank(Map<Integer, Fare> cheapest) {
+            Integer[] order = cheapest.keySet().toArray(Integer[]::new);
+            Arrays.sort(order, (a, b) -> {
+                int byPrice = Long.compare(cheapest.get(a).cents(), cheapest.get(b).cents());
+                return byPrice != 0 ? byPrice : Integer.compare(a, b);
+            });
+            int[] destinations = new int[order.length];
+            int[] days = new int[order.length];
+            long[] cents = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                Fare fare = cheapest.get(order[i]);
+                destinations[i] = order[i];
+                days[i] = fare.epochDay();
+                cents[i] = fare.cents();
+            }
+            return new Ranking(destinations, days, cents);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dev.rakett.lennuk.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.dto.FlightDto;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.util.MetroAreas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory read index of the flight inventory, keyed by origin, destination and departure date.
+ *
+ * Every flight is indexed under its airport codes and under the metropolitan area of each airport,
+ * so a search for LON finds flights from LGW, LHR, STN, LCY and LTN without touching the database.
+ * Each inventory refresh builds a fresh index and swaps it in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlightIndex {
+    private static final Comparator<FlightDto> BY_DEPARTURE = Comparator
+            .comparing(FlightDto::getDepartureDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(FlightDto::getId);
+
+    private final MetroAreas metroAreas;
+    private volatile Index index = new Index();
+
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        long start = System.nanoTime();
+        Index rebuilt = new Index();
+        event.flights().forEach(rebuilt::add);
+        index = rebuilt;
+        log.debug("Indexed {} flights in {} us", event.flights().size(), (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+    * Returns every indexed flight, ordered by ID.
+    *
+    * @return A list of all FlightDto objects in the index.
+    */
+    public List<FlightDto> all() {
+        return new ArrayList<>(index.byId.values());
+    }
+
+    public Optional<FlightDto> get(Long id) {
+        return Optional.ofNullable(index.byId.get(id));
+    }
+
+    /**
+    * Finds flights matching the given criteria. Any criterion may be null to match everything.
+    *
+    * @param origin        An origin airport or city code.
+    * @param destination   A destination airport or city code.
+    * @param departureFrom The earliest departure date (inclusive, yyyy-MM-dd).
+    * @param departureTo   The latest departure date (inclusive, yyyy-MM-dd).
+    * @return The matching flights, ordered by departure date.
+    */
+    public List<FlightDto> find(String origin, String destination, String departureFrom, String departureTo) {
+        Index current = index;
+        Map<Long, FlightDto> matches = new LinkedHashMap<>();
+        Collection<Map<String, NavigableMap<String, Map<Long, FlightDto>>>> origins = origin != null
+                ? optionalOf(current.postings.get(normalize(origin)))
+                : current.postings.values();
+
+        for (Map<String, NavigableMap<String, Map<Long, FlightDto>>> destinations : origins) {
+            Collection<NavigableMap<String, Map<Long, FlightDto>>> dates = destination != null
+                    ? optionalOf(destinations.get(normalize(destination)))
+                    : destinations.values();
+            for (NavigableMap<String, Map<Long, FlightDto>> byDate : dates) {
+                for (Map<Long, FlightDto> flights : range(byDate, departureFrom, departureTo).values()) {
+                    flights.forEach(matches::putIfAbsent);
+                }
+            }
+        }
+
+        List<FlightDto> result = new ArrayList<>(matches.values());
+        result.sort(BY_DEPARTURE);
+        return result;
+    }
+
+    private NavigableMap<String, Map<Long, FlightDto>> range(NavigableMap<String, Map<Long, FlightDto>> byDate,
+            String from, String to) {
+        if (from != null && to != null) {
+            return byDate.subMap(from, true, to, true);
+        } else if (from != null) {
+            return byDate.tailMap(from, true);
+        } else if (to != null) {
+            return byDate.headMap(to, true);
+        }
+        return byDate;
+    }
+
+    private static <T> Collection<T> optionalOf(T value) {
+        return value != null ? List.of(value) : List.of();
+    }
+
+    private static String normalize(String code) {
+        return MetroAreas.normalize(code);
+    }
+
+    private class Index {
+        private final ConcurrentSkipListMap<Long, FlightDto> byId = new ConcurrentSkipListMap<>();
+        // origin -> destination -> departure date -> flights by ID
+        private final Map<String, Map<String, NavigableMap<String, Map<Long, FlightDto>>>> postings =
+                new ConcurrentHashMap<>();
+
+        void add(FlightDto flight) {
+            byId.put(flight.getId(), flight);
+            String date = flight.getDepartureDate() != null ? flight.getDepartureDate() : "";
+            for (String origin : metroAreas.indexKeys(flight.getOrigin())) {
+                for (String destination : metroAreas.indexKeys(flight.getDestination())) {
+                    postings.computeIfAbsent(origin, o -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(destination, d -> new ConcurrentSkipListMap<>())
+                            .computeIfAbsent(date, d -> new ConcurrentSkipListMap<>())
+                            .put(flight.getId(), flight);
+                }
+            }
+        }
+    }
+}
@@ -3,12 +3,19 @@ package dev.rakett.lennuk.service;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import dev.rakett.lennuk.dto.FlightDto;
 import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
 import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.monitoring.InventoryPhaseEvent;
+import dev.rakett.lennuk.monitoring.RequestTracing;
+import dev.rakett.lennuk.repository.FlightBatchWriter;
 import dev.rakett.lennuk.repository.FlightRepository;
 import dev.rakett.lennuk.util.FlightCreator;
 import lombok.RequiredArgsConstructor;
@@ -26,48 +33,123 @@ import lombok.RequiredArgsConstructor;
 public class FlightService {
 
     private final FlightRepository flightRepository;
+    private final FlightBatchWriter flightBatchWriter;
     private final AmadeusApiService amadeusApiService;
     private final SeatService seatService;
     private final FlightCreator flightCreator;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final BookingJournal bookingJournal;
+    private final InventoryGeneratorService inventoryGeneratorService;
+    private final FlightIndex flightIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache:false}")
+    private boolean secondLevelCacheEnabled;
 
     /**
-    * Initializes flights by fetching data from the Amadeus API. If the API request fails 
-    * or returns an empty result (due to free-tier limitations), fallback sample flights 
-    * are created. 
+    * Initializes flights from the inventory snapshot if one is available. Otherwise a synthetic
+    * inventory is generated if the generator is enabled, or flights are fetched from the Amadeus API. If the API request fails or returns an empty result
+    * (due to free-tier limitations), fallback sample flights are created. 
     * 
-    * This method is executed only if no flights exist in the repository.
+    * Flights are only loaded if none exist in the repository. In either case the
+    * in-memory flight index is rebuilt from the stored flights.
     */
     public void initializeFlights() {
         if (flightRepository.count() == 0) {
-            List<Flight> flights;
-            try {
-                // The api is quite limited on free tier, so we hardcode origin to LON for now
-                flights = amadeusApiService.fetchFlightDestinations("LON");
-                if (flights == null || flights.isEmpty()) {
-                    flights = flightCreator.createSampleFlights();
-                }
-            } catch (Exception e) {
+            loadFlights();
+        }
+        publishInventory();
+    }
+
+    private void loadFlights() {
+        InventoryPhaseEvent restore = InventoryPhaseEvent.start("snapshot-restore");
+        Optional<List<Flight>> snapshot = inventorySnapshotService.restore();
+        if (snapshot.isPresent() && !snapshot.get().isEmpty()) {
+            flightBatchWriter.insertWithIds(snapshot.get());
+            restore.flights = snapshot.get().size();
+            restore.commit();
+            return;
+        }
+        restore.commit();
+        if (!bookingJournal.recoveredRecords().isEmpty()) {
+            // Confirmed bookings would land on unrelated flights and seats
+            throw new IllegalStateException("The booking journal holds " + bookingJournal.recoveredRecords().size()
+                    + " records but the inventory snapshot could not be restored; restore the snapshot "
+                    + "or move the journal away to start with a new inventory");
+        }
+        if (inventoryGeneratorService.isEnabled()) {
+            InventoryPhaseEvent generate = InventoryPhaseEvent.start("generate");
+            generate.flights = inventoryGeneratorService.generate();
+            generate.commit();
+            inventorySnapshotService.write();
+            return;
+        }
+
+        InventoryPhaseEvent fetch = InventoryPhaseEvent.start("fetch");
+        List<Flight> flights;
+        try {
+            // The api is quite limited on free tier, so we hardcode origin to LON for now
+            flights = amadeusApiService.fetchFlightDestinations("LON");
+            if (flights == null || flights.isEmpty()) {
                 flights = flightCreator.createSampleFlights();
             }
-            flightRepository.saveAll(flights);
-            seatService.initializeBookedSeats();
+        } catch (Exception e) {
+            flights = flightCreator.createSampleFlights();
         }
+        flightRepository.saveAll(flights);
+        fetch.flights = flights.size();
+        fetch.commit();
+
+        InventoryPhaseEvent seed = InventoryPhaseEvent.start("seed");
+        seatService.initializeBookedSeats();
+        seed.flights = flights.size();
+        seed.commit();
+        inventorySnapshotService.write();
+    }
+
+    /**
+    * Publishes the complete stored inventory so that in-memory read models are rebuilt.
+    */
+    private void publishInventory() {
+        InventoryPhaseEvent publish = InventoryPhaseEvent.start("publish");
+        List<FlightDto> flights = flightRepository.findAll().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        eventPublisher.publishEvent(new InventoryRefreshedEvent(flights));
+        publish.flights = flights.size();
+        publish.commit();
     }
 
     /**
-    * Retrieves all flights stored in the database and converts them into DTOs.
+    * Retrieves all flights from the in-memory flight index.
     * 
     * @return A list of FlightDto objects representing available flights.
     */
-    @Transactional(readOnly = true)
     public List<FlightDto> getFlights() {
-        return flightRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        try (RequestTracing.Phase phase = RequestTracing.phase("index")) {
+            return flightIndex.all();
+        }
+    }
+
+    /**
+    * Searches flights in the in-memory flight index. City codes such as LON match all
+    * airports of the metropolitan area.
+    * 
+    * @param origin        (Optional) Origin airport or city code.
+    * @param destination   (Optional) Destination airport or city code.
+    * @param departureDate (Optional) Departure date in yyyy-MM-dd format.
+    * @return A list of matching FlightDto objects, ordered by departure date.
+    */
+    public List<FlightDto> findFlights(String origin, String destination, String departureDate) {
+        try (RequestTracing.Phase phase = RequestTracing.phase("index")) {
+            return flightIndex.find(origin, destination, departureDate, departureDate);
+        }
     }
 
     /**
     * Retrieves a specific flight by its ID, including booked seat information.
+    * With the second-level cache enabled, the flight and its booked seats are resolved
+    * through the cache instead of a fetch join, which would always reach the database.
     * 
     * @param id The unique identifier of the flight.
     * @return An Optional containing the Flight entity if found.
@@ -78,6 +160,11 @@ public class FlightService {
         if (id == null) {
             throw new BadRequestException("Flight ID cannot be null");
         }
+        if (secondLevelCacheEnabled) {
+            Optional<Flight> flight = flightRepository.findById(id);
+            flight.ifPresent(f -> Hibernate.initialize(f.getBookedSeats()));
+            return flight;
+        }
         return flightRepository.findByIdWithBookedSeats(id);
     }
 
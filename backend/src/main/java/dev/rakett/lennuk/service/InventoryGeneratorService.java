@@ -0,0 +1,85 @@
+package dev.rakett.lennuk.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.repository.FlightBatchWriter;
+import dev.rakett.lennuk.util.FlightGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for filling the database with a large synthetic inventory, for benchmarking and
+ * capacity planning at production data sizes.
+ *
+ * Flights are generated in parallel one chunk at a time and each chunk is written in its own
+ * transaction with JDBC batch inserts, bypassing the persistence context.
+ */
+@Service
+@Slf4j
+public class InventoryGeneratorService {
+    private final FlightGenerator flightGenerator;
+    private final FlightBatchWriter flightBatchWriter;
+    private final boolean enabled;
+    private final int flightCount;
+    private final long seed;
+    private final String baseDate;
+    private final int chunkSize;
+    private final double loadFactorMean;
+    private final double loadFactorStdDev;
+
+    public InventoryGeneratorService(
+            FlightGenerator flightGenerator,
+            FlightBatchWriter flightBatchWriter,
+            @Value("${inventory.generator.enabled:false}") boolean enabled,
+            @Value("${inventory.generator.flights:100000}") int flightCount,
+            @Value("${inventory.generator.seed:42}") long seed,
+            @Value("${inventory.generator.base-date:}") String baseDate,
+            @Value("${inventory.generator.chunk-size:2000}") int chunkSize,
+            @Value("${inventory.generator.load-factor-mean:0.65}") double loadFactorMean,
+            @Value("${inventory.generator.load-factor-stddev:0.2}") double loadFactorStdDev) {
+        this.flightGenerator = flightGenerator;
+        this.flightBatchWriter = flightBatchWriter;
+        this.enabled = enabled;
+        this.flightCount = flightCount;
+        this.seed = seed;
+        this.baseDate = baseDate;
+        this.chunkSize = chunkSize;
+        this.loadFactorMean = loadFactorMean;
+        this.loadFactorStdDev = loadFactorStdDev;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+    * Generates and stores the configured number of flights with their booked seats.
+    * Departures are counted from the configured base date, or from today if none is set.
+    *
+    * @return The number of flights generated.
+    */
+    public int generate() {
+        long start = System.nanoTime();
+        LocalDate from = baseDate.isBlank() ? LocalDate.now() : LocalDate.parse(baseDate);
+        long bookedSeats = 0;
+        for (int offset = 0; offset < flightCount; offset += chunkSize) {
+            List<Flight> chunk = LongStream.range(offset, Math.min(flightCount, offset + chunkSize))
+                    .parallel()
+                    .mapToObj(index -> flightGenerator.generate(seed, index, from, loadFactorMean,
+                            loadFactorStdDev))
+                    .toList();
+            flightBatchWriter.insert(chunk);
+            for (Flight flight : chunk) {
+                bookedSeats += flight.getBookedSeats().size();
+            }
+        }
+        log.info("Generated {} flights departing after {} with {} booked seats in {} ms", flightCount, from,
+                bookedSeats, (System.nanoTime() - start) / 1_000_000);
+        return flightCount;
+    }
+}
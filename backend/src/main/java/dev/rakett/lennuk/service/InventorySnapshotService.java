@@ -0,0 +1,412 @@
+package dev.rakett.lennuk.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.rakett.lennuk.entity.BookedSeat;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+import dev.rakett.lennuk.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for persisting the flight catalogue and seat occupancy to a local snapshot file,
+ * so that a restart can restore the inventory without calling Amadeus or reseeding bookings.
+ * Flights are restored with the IDs they were written with, so booking journal records written
+ * after the snapshot can be replayed on top of it.
+ *
+ * Snapshot layout (big-endian):
+ * <pre>
+ * header   : int magic, short version, long createdAt (epoch millis),
+ *            long coveredSequence, int flightCount
+ * strings  : int count, then per string: short length, UTF-8 bytes
+ * flights  : per flight: long id, int origin, int destination, int subType, int originDetailedName,
+ *            int destinationDetailedName, int seatLayout (string indices, -1 for null),
+ *            int departureDate, int returnDate (epoch days, NO_DATE for null),
+ *            byte priceScale (-1 for null), long unscaledPrice,
+ *            short rows, short seatsPerRow (-1 for null),
+ *            short bitmapLength, booked seat bitmap (row-major, one bit per seat),
+ *            booked seat bitmap of the return leg (same length),
+ *            short customerSeatCount, then per booked seat with a customer: byte leg (1 for return),
+ *            short seat index (row-major), int customerId (string index)
+ * </pre>
+ *
+ * A snapshot of any other version is not restored, and the inventory is reseeded instead.
+ *
+ * A snapshot is read from the database while the booking journal's apply lock is held, so it
+ * contains exactly the journal records up to its covered sequence and none after it.
+ *
+ * Snapshots are written to a temporary file and atomically moved into place, and read back
+ * through a memory-mapped buffer.
+ */
+@Service
+@Slf4j
+public class InventorySnapshotService {
+    private static final int MAGIC = 0x4C4E4B53; // "LNKS"
+    private static final short VERSION = 5;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final FlightRepository flightRepository;
+    private final BookingJournal bookingJournal;
+    private final boolean enabled;
+    private final Path snapshotPath;
+    // Highest booking journal sequence whose booking is contained in the last snapshot
+    private volatile long coveredSequence;
+    // Covered sequence of the snapshot restored at startup, if the inventory came from one
+    private volatile OptionalLong restoredSequence = OptionalLong.empty();
+
+    public InventorySnapshotService(
+            FlightRepository flightRepository,
+            BookingJournal bookingJournal,
+            @Value("${inventory.snapshot.enabled:false}") boolean enabled,
+            @Value("${inventory.snapshot.path:data/inventory.snapshot}") String snapshotPath) {
+        this.flightRepository = flightRepository;
+        this.bookingJournal = bookingJournal;
+        this.enabled = enabled;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getCoveredSequence() {
+        return coveredSequence;
+    }
+
+    /**
+    * Returns the highest booking journal sequence contained in the snapshot restored at startup.
+    *
+    * @return The covered sequence, or empty if the inventory was not restored from a snapshot.
+    */
+    public OptionalLong getRestoredSequence() {
+        return restoredSequence;
+    }
+
+    /**
+    * Restores flights and their booked seats from the snapshot file, if snapshots are enabled
+    * and a snapshot exists. The returned flights carry their IDs but are not yet persisted; the
+    * caller must persist them before bookings are accepted. The booking journal records the
+    * snapshot contains count as applied.
+    *
+    * @return An Optional containing the restored flights, or empty if nothing could be restored.
+    */
+    public Optional<List<Flight>> restore() {
+        if (!enabled || !Files.isReadable(snapshotPath)) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Snapshot snapshot = decode(buffer);
+            if (snapshot.flights().isEmpty()) {
+                return Optional.empty();
+            }
+            coveredSequence = snapshot.coveredSequence();
+            restoredSequence = OptionalLong.of(snapshot.coveredSequence());
+            bookingJournal.advanceSequence(snapshot.coveredSequence());
+            bookingJournal.markApplied(snapshot.coveredSequence());
+            log.info("Restored {} flights covering journal sequence {} from snapshot {} in {} ms",
+                    snapshot.flights().size(), snapshot.coveredSequence(), snapshotPath,
+                    (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(snapshot.flights());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore inventory snapshot {}: {}", snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+    * Writes the current flight catalogue and occupancy to the snapshot file.
+    * Runs periodically and on shutdown when snapshots are enabled.
+    */
+    @Scheduled(initialDelayString = "${inventory.snapshot.interval-ms:300000}",
+            fixedDelayString = "${inventory.snapshot.interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void write() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long journalSequence;
+            List<Flight> flights;
+            // No records are applied meanwhile, so the flights contain exactly the records up to the sequence
+            Lock applyLock = bookingJournal.applyLock();
+            applyLock.lock();
+            try {
+                journalSequence = bookingJournal.getAppliedSequence();
+                flights = flightRepository.findAllWithBookedSeats();
+            } finally {
+                applyLock.unlock();
+            }
+            if (flights.isEmpty()) {
+                // Nothing has been loaded, e.g. startup failed; keep the previous snapshot
+                return;
+            }
+            byte[] snapshot = encode(flights, journalSequence);
+
+            Path directory = snapshotPath.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            coveredSequence = journalSequence;
+            log.debug("Wrote snapshot of {} flights ({} bytes) in {} ms", flights.size(), snapshot.length,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write inventory snapshot {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        write();
+    }
+
+    private byte[] encode(List<Flight> flights, long journalSequence) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new HashMap<>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream(flights.size() * 64);
+        DataOutputStream out = new DataOutputStream(records);
+
+        for (Flight flight : flights) {
+            out.writeLong(flight.getId());
+            out.writeInt(intern(flight.getOrigin(), strings, stringIndex));
+            out.writeInt(intern(flight.getDestination(), strings, stringIndex));
+            out.writeInt(intern(flight.getSubType(), strings, stringIndex));
+            out.writeInt(intern(flight.getOriginDetailedName(), strings, stringIndex));
+            out.writeInt(intern(flight.getDestinationDetailedName(), strings, stringIndex));
+            out.writeInt(intern(flight.getSeatLayout(), strings, stringIndex));
+            out.writeInt(toEpochDay(flight.getDepartureDate()));
+            out.writeInt(toEpochDay(flight.getReturnDate()));
+            BigDecimal price = encodablePrice(flight);
+            out.writeByte(price != null ? price.scale() : -1);
+            out.writeLong(price != null ? price.unscaledValue().longValue() : 0L);
+            out.writeShort(flight.getRows() != null ? flight.getRows() : -1);
+            out.writeShort(flight.getSeatsPerRow() != null ? flight.getSeatsPerRow() : -1);
+
+            byte[] bitmap = bookedSeatBitmap(flight, Leg.OUTBOUND);
+            out.writeShort(bitmap.length);
+            out.write(bitmap);
+            out.write(bookedSeatBitmap(flight, Leg.RETURN));
+            writeCustomers(out, flight, strings, stringIndex);
+        }
+        out.flush();
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream(records.size() + strings.size() * 16 + 64);
+        DataOutputStream header = new DataOutputStream(snapshot);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeLong(System.currentTimeMillis());
+        header.writeLong(journalSequence);
+        header.writeInt(flights.size());
+        header.writeInt(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            header.writeShort(bytes.length);
+            header.write(bytes);
+        }
+        records.writeTo(header);
+        header.flush();
+        return snapshot.toByteArray();
+    }
+
+    private Snapshot decode(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Not an inventory snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version " + version);
+        }
+        buffer.getLong(); // createdAt
+        long journalSequence = buffer.getLong();
+        int flightCount = buffer.getInt();
+
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<Flight> flights = new ArrayList<>(flightCount);
+        for (int i = 0; i < flightCount; i++) {
+            Flight flight = new Flight();
+            flight.setId(buffer.getLong());
+            flight.setOrigin(lookup(strings, buffer.getInt()));
+            flight.setDestination(lookup(strings, buffer.getInt()));
+            flight.setSubType(lookup(strings, buffer.getInt()));
+            flight.setOriginDetailedName(lookup(strings, buffer.getInt()));
+            flight.setDestinationDetailedName(lookup(strings, buffer.getInt()));
+            flight.setSeatLayout(lookup(strings, buffer.getInt()));
+            flight.setDepartureDate(fromEpochDay(buffer.getInt()));
+            flight.setReturnDate(fromEpochDay(buffer.getInt()));
+            byte scale = buffer.get();
+            long unscaled = buffer.getLong();
+            flight.setBasePrice(scale >= 0 ? new BigDecimal(BigInteger.valueOf(unscaled), scale) : null);
+            short rows = buffer.getShort();
+            short seatsPerRow = buffer.getShort();
+            flight.setRows(rows >= 0 ? (int) rows : null);
+            flight.setSeatsPerRow(seatsPerRow >= 0 ? (int) seatsPerRow : null);
+
+            byte[] bitmap = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bitmap);
+            restoreBookedSeats(flight, Leg.OUTBOUND, bitmap);
+            buffer.get(bitmap);
+            restoreBookedSeats(flight, Leg.RETURN, bitmap);
+            restoreCustomers(flight, buffer, strings);
+            flights.add(flight);
+        }
+        return new Snapshot(journalSequence, flights);
+    }
+
+    /**
+     * Returns the flight's base price in a form that fits the price fields, or throws if it does not.
+     */
+    private BigDecimal encodablePrice(Flight flight) {
+        BigDecimal price = flight.getBasePrice();
+        if (price == null) {
+            return null;
+        }
+        if (price.scale() < 0) {
+            price = price.setScale(0);
+        }
+        if (price.scale() > Byte.MAX_VALUE || price.unscaledValue().bitLength() >= Long.SIZE) {
+            throw new IllegalStateException("Base price " + price + " of flight " + flight.getId()
+                    + " cannot be stored in a snapshot");
+        }
+        return price;
+    }
+
+    private byte[] bookedSeatBitmap(Flight flight, Leg leg) {
+        SeatLayout layout = flight.getLayout();
+        byte[] bitmap = new byte[(layout.getTotalSeats() + 7) / 8];
+        for (BookedSeat seat : flight.getBookedSeats()) {
+            int index = layout.indexOf(seat.getSeatNumber());
+            if (index >= 0 && seat.getLeg() == leg) {
+                bitmap[index >> 3] |= (byte) (1 << (index & 7));
+            }
+        }
+        return bitmap;
+    }
+
+    private void restoreBookedSeats(Flight flight, Leg leg, byte[] bitmap) {
+        SeatLayout layout = flight.getLayout();
+        int totalSeats = Math.min(layout.getTotalSeats(), bitmap.length * 8);
+        for (int index = 0; index < totalSeats; index++) {
+            if ((bitmap[index >> 3] & (1 << (index & 7))) != 0) {
+                int row = index / layout.getSeatsPerRow() + 1;
+                int column = index % layout.getSeatsPerRow() + 1;
+                flight.addBookedSeat(layout.seatNumber(row, column), leg);
+            }
+        }
+    }
+
+    private void writeCustomers(DataOutputStream out, Flight flight, List<String> strings,
+            Map<String, Integer> stringIndex) throws IOException {
+        SeatLayout layout = flight.getLayout();
+        List<BookedSeat> seats = flight.getBookedSeats().stream()
+                .filter(seat -> seat.getCustomerId() != null && layout.indexOf(seat.getSeatNumber()) >= 0)
+                .toList();
+        out.writeShort(seats.size());
+        for (BookedSeat seat : seats) {
+            out.writeByte(seat.getLeg() == Leg.RETURN ? 1 : 0);
+            out.writeShort(layout.indexOf(seat.getSeatNumber()));
+            out.writeInt(intern(seat.getCustomerId(), strings, stringIndex));
+        }
+    }
+
+    private void restoreCustomers(Flight flight, ByteBuffer buffer, String[] strings) {
+        int count = buffer.getShort() & 0xFFFF;
+        if (count == 0) {
+            return;
+        }
+        SeatLayout layout = flight.getLayout();
+        Map<String, BookedSeat> seats = new HashMap<>();
+        for (BookedSeat seat : flight.getBookedSeats()) {
+            seats.put(seat.getLeg() + ":" + seat.getSeatNumber(), seat);
+        }
+        for (int i = 0; i < count; i++) {
+            Leg leg = buffer.get() == 1 ? Leg.RETURN : Leg.OUTBOUND;
+            int index = buffer.getShort() & 0xFFFF;
+            String customerId = lookup(strings, buffer.getInt());
+            String seatNumber = layout.seatNumber(index / layout.getSeatsPerRow() + 1,
+                    index % layout.getSeatsPerRow() + 1);
+            BookedSeat seat = seats.get(leg + ":" + seatNumber);
+            if (seat != null) {
+                seat.setCustomerId(customerId);
+            }
+        }
+    }
+
+    private int intern(String value, List<String> strings, Map<String, Integer> stringIndex) {
+        if (value == null) {
+            return -1;
+        }
+        return stringIndex.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private String lookup(String[] strings, int index) {
+        return index >= 0 ? strings[index] : null;
+    }
+
+    private int toEpochDay(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    private String fromEpochDay(int epochDay) {
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay).toString() : null;
+    }
+
+    private record Snapshot(long coveredSequence, List<Flight> flights) {
+    }
+}
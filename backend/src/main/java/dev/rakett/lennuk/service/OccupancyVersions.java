@@ -0,0 +1,41 @@
+package dev.rakett.lennuk.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.event.OccupancyChangedEvent;
+
+/**
+ * Per-flight occupancy versions. A flight's version changes whenever seats are booked on it
+ * or the inventory is reloaded, so results derived from its occupancy can be keyed by it.
+ *
+ * Versions are drawn from one global sequence, so a flight never gets a version it had before.
+ */
+@Component
+public class OccupancyVersions {
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private volatile long baseline;
+
+    public long versionOf(Long flightId) {
+        return versions.getOrDefault(flightId, baseline);
+    }
+
+    @EventListener
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        for (Long flightId : event.flightIds()) {
+            versions.put(flightId, sequence.incrementAndGet());
+        }
+    }
+
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        baseline = sequence.incrementAndGet();
+        versions.clear();
+    }
+}
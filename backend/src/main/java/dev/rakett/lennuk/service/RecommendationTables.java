@@ -0,0 +1,132 @@
+package dev.rakett.lennuk.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.model.SeatPreference;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-flight tables of seat recommendations, one entry per preference combination.
+ *
+ * Each table remembers the occupied seats its entries were computed for. When more seats are
+ * booked, only entries that recommended one of the newly booked seats are dropped: removing a
+ * seat that was not recommended from the available seats cannot change which seats the
+ * recommender picks, since both the best-individual-seats and the single-row-group searches keep
+ * the first best candidate. Entries produced by the cross-row group optimizer are dropped on any
+ * change, because it searches under a time budget. If seats become free again, the table is reset.
+ *
+ * A table holds at most one entry per preference combination, and tables of departed flights are
+ * dropped on the same schedule as their ticket quotas, so memory is bounded by the flights on sale.
+ */
+@Component
+@Slf4j
+public class RecommendationTables {
+    private final Map<Long, FlightTable> tables = new ConcurrentHashMap<>();
+
+    /**
+    * A recommendation for one preference combination.
+    *
+    * @param seatNumbers The recommended seats.
+    * @param reusable    Whether the recommendation stays valid while none of its seats are booked.
+    */
+    public record Recommendation(List<String> seatNumbers, boolean reusable) {
+    }
+
+    /**
+    * Looks up the recommendation for a flight in the given occupancy, computing and storing it if
+    * the table has no valid entry.
+    *
+    * @param flightId      The ID of the flight.
+    * @param departureDate The departure date of the flight (yyyy-MM-dd), used for eviction.
+    * @param occupiedSeats The seats currently booked or pending on the flight.
+    * @param preferences   The normalized seat preference criteria.
+    * @param computation   Computes the recommendation for the given occupancy.
+    * @return The recommendation.
+    */
+    public Recommendation lookup(Long flightId, String departureDate, Set<String> occupiedSeats,
+            SeatPreference preferences, Supplier<Recommendation> computation) {
+        FlightTable table = tables.computeIfAbsent(flightId, id -> new FlightTable(parseDate(departureDate)));
+        Recommendation recommendation = table.get(occupiedSeats, preferences);
+        if (recommendation == null) {
+            // Compute outside the table's lock, so different preferences can be computed concurrently
+            recommendation = computation.get();
+            table.put(occupiedSeats, preferences, recommendation);
+        }
+        return recommendation;
+    }
+
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        tables.clear();
+    }
+
+    /**
+    * Drops the tables of flights that have departed.
+    */
+    @Scheduled(cron = "${booking.quota.eviction-cron:0 0 * * * *}")
+    public void evictDepartedFlights() {
+        LocalDate today = LocalDate.now();
+        int before = tables.size();
+        tables.values().removeIf(table -> table.departureDate != null && table.departureDate.isBefore(today));
+        log.debug("Evicted recommendation tables of {} departed flights", before - tables.size());
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class FlightTable {
+        private final LocalDate departureDate;
+        private Set<String> occupiedSeats = Collections.emptySet();
+        private final Map<SeatPreference, Recommendation> entries = new HashMap<>();
+
+        private FlightTable(LocalDate departureDate) {
+            this.departureDate = departureDate;
+        }
+
+        synchronized Recommendation get(Set<String> occupied, SeatPreference preferences) {
+            reconcile(occupied);
+            return entries.get(preferences);
+        }
+
+        synchronized void put(Set<String> occupied, SeatPreference preferences, Recommendation recommendation) {
+            // Only store it if the table has not moved on to a different occupancy in the meantime
+            if (occupiedSeats.equals(occupied)) {
+                entries.put(preferences, recommendation);
+            }
+        }
+
+        private void reconcile(Set<String> occupied) {
+            if (occupiedSeats.equals(occupied)) {
+                return;
+            }
+            if (!occupied.containsAll(occupiedSeats)) {
+                entries.clear();
+            } else {
+                Set<String> newlyOccupied = new HashSet<>(occupied);
+                newlyOccupied.removeAll(occupiedSeats);
+                entries.values().removeIf(entry -> !entry.reusable()
+                        || entry.seatNumbers().stream().anyMatch(newlyOccupied::contains));
+            }
+            occupiedSeats = Set.copyOf(occupied);
+        }
+    }
+}
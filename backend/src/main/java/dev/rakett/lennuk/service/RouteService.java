@@ -0,0 +1,332 @@
+package dev.rakett.lennuk.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.FlightDto;
+import dev.rakett.lennuk.dto.RouteDto;
+import dev.rakett.lennuk.event.InventoryRefreshedEvent;
+import dev.rakett.lennuk.util.MetroAreas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for finding connecting itineraries over the stored flights.
+ *
+ * The flights form a route graph with one node per airport. Each airport keeps its departing
+ * legs in primitive arrays sorted by departure day, so the legs that can follow an arrival are
+ * a binary search away. The graph is immutable and rebuilt and swapped on each inventory refresh.
+ *
+ * Searches run Dijkstra over legs rather than airports: a leg is only settled again if it is
+ * reached with fewer legs, which leaves more legs for the rest of the journey. The first
+ * itineraries ending at the destination are the cheapest ones, each with a different final leg.
+ * A partial itinerary is not queued if one already settled or queued for the same leg is no more
+ * expensive and has no more legs, and the queue is capped, so a search's memory stays bounded.
+ * Flights only carry departure dates, so a leg is assumed to arrive on the day it departs and
+ * may be followed by legs departing up to maxLayoverDays later.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteService {
+    public static final int MAX_LEGS = 4;
+    // Upper bound on settled legs per search, keeping worst-case latency bounded
+    private static final int MAX_SETTLED = 200_000;
+    // Upper bound on queued partial itineraries per search, keeping its memory bounded
+    private static final int MAX_QUEUED = 500_000;
+
+    private final MetroAreas metroAreas;
+
+    private volatile RouteGraph graph = RouteGraph.EMPTY;
+
+    @EventListener
+    public void onInventoryRefreshed(InventoryRefreshedEvent event) {
+        long start = System.nanoTime();
+        RouteGraph built = RouteGraph.build(event.flights());
+        graph = built;
+        log.debug("Built route graph of {} airports and {} legs in {} us", built.airports.length,
+                event.flights().size(), (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+    * Finds the cheapest itineraries from origin to destination departing on the given date.
+    *
+    * @param origin         Origin airport or city code.
+    * @param destination    Destination airport or city code.
+    * @param date           Departure date of the first leg.
+    * @param maxLegs        Maximum number of legs per itinerary.
+    * @param maxLayoverDays Maximum days between consecutive legs.
+    * @param limit          Maximum number of itineraries.
+    * @return The itineraries, cheapest first.
+    */
+    public List<RouteDto> findRoutes(String origin, String destination, LocalDate date, int maxLegs,
+            int maxLayoverDays, int limit) {
+        RouteGraph current = graph;
+        Set<Integer> origins = current.airportIds(metroAreas.expand(origin));
+        Set<Integer> destinations = current.airportIds(metroAreas.expand(destination));
+        if (origins.isEmpty() || destinations.isEmpty()) {
+            return List.of();
+        }
+        int day = (int) date.toEpochDay();
+
+        PriorityQueue<Label> queue = new PriorityQueue<>();
+        for (int airport : origins) {
+            AirportLegs legs = current.legs(airport);
+            for (int i = legs.firstOnOrAfter(day); i < legs.size() && legs.day[i] == day; i++) {
+                queue.add(new Label(legs.priceCents[i], 1, airport, i, null));
+            }
+        }
+
+        // Fewest legs with which each leg has been settled, keyed by airport and index
+        Map<Long, Integer> settled = new HashMap<>();
+        // The queued itinerary with the fewest legs, then the lowest cost, per leg
+        Map<Long, Label> queued = new HashMap<>();
+        List<RouteDto> routes = new ArrayList<>();
+        while (!queue.isEmpty() && routes.size() < limit && settled.size() < MAX_SETTLED) {
+            Label label = queue.poll();
+            long key = ((long) label.airport << 32) | label.index;
+            Integer settledLegs = settled.get(key);
+            if (settledLegs != null && settledLegs <= label.legCount) {
+                continue;
+            }
+            settled.put(key, label.legCount);
+
+            AirportLegs from = current.legs(label.airport);
+            int arrival = from.to[label.index];
+            if (destinations.contains(arrival)) {
+                if (settledLegs == null) {
+                    routes.add(toRoute(label, current));
+                }
+                continue;
+            }
+            if (label.legCount >= maxLegs) {
+                continue;
+            }
+            AirportLegs next = current.legs(arrival);
+            int arrivalDay = from.day[label.index];
+            for (int i = next.firstOnOrAfter(arrivalDay); i < next.size() && next.day[i] <= arrivalDay + maxLayoverDays
+                    && queue.size() < MAX_QUEUED; i++) {
+                if (!origins.contains(next.to[i]) && !label.visits(next.to[i])) {
+                    Label extended = new Label(label.costCents + next.priceCents[i], label.legCount + 1, arrival, i,
+                            label);
+                    if (!isDominated(extended, settled, queued)) {
+                        queue.add(extended);
+                    }
+                }
+            }
+        }
+        return routes;
+    }
+
+    /**
+    * Whether an itinerary settled or queued for the same leg is no more expensive and has no more
+    * legs, in which case the label cannot lead to a better itinerary. Remembers the label otherwise.
+    */
+    private static boolean isDominated(Label label, Map<Long, Integer> settled, Map<Long, Label> queued) {
+        long key = ((long) label.airport << 32) | label.index;
+        // Labels are settled cheapest first, so a settled label is never more expensive
+        Integer settledLegs = settled.get(key);
+        if (settledLegs != null && settledLegs <= label.legCount) {
+            return true;
+        }
+        Label best = queued.get(key);
+        if (best != null && best.costCents <= label.costCents && best.legCount <= label.legCount) {
+            return true;
+        }
+        if (best == null || label.legCount < best.legCount
+                || label.legCount == best.legCount && label.costCents < best.costCents) {
+            queued.put(key, label);
+        }
+        return false;
+    }
+
+    private RouteDto toRoute(Label last, RouteGraph current) {
+        List<FlightDto> legs = new ArrayList<>(last.legCount);
+        for (Label label = last; label != null; label = label.previous) {
+            legs.add(current.legs(label.airport).flight[label.index]);
+        }
+        Collections.reverse(legs);
+        return RouteDto.builder()
+                .origin(legs.get(0).getOrigin())
+                .destination(legs.get(legs.size() - 1).getDestination())
+                .departureDate(legs.get(0).getDepartureDate())
+                .lastDepartureDate(legs.get(legs.size() - 1).getDepartureDate())
+                .stops(legs.size() - 1)
+                .totalPrice(BigDecimal.valueOf(last.costCents, 2))
+                .legs(legs)
+                .build();
+    }
+
+    /**
+    * A partial itinerary ending with the leg at {@code index} of {@code airport}'s departures.
+    */
+    private record Label(long costCents, int legCount, int airport, int index, Label previous)
+            implements Comparable<Label> {
+
+        @Override
+        public int compareTo(Label other) {
+            int byCost = Long.compare(costCents, other.costCents);
+            return byCost != 0 ? byCost : Integer.compare(legCount, other.legCount);
+        }
+
+        // Whether the itinerary already passes through the airport, which would make it a loop
+        boolean visits(int airportId) {
+            for (Label label = this; label != null; label = label.previous) {
+                if (label.airport == airportId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+    * Departing legs of one airport, sorted by departure day.
+    */
+    static final class AirportLegs {
+        static final AirportLegs NONE = new AirportLegs(new int[0], new int[0], new long[0], new FlightDto[0]);
+
+        final int[] to;
+        final int[] day;
+        final long[] priceCents;
+        final FlightDto[] flight;
+
+        AirportLegs(int[] to, int[] day, long[] priceCents, FlightDto[] flight) {
+            this.to = to;
+            this.day = day;
+            this.priceCents = priceCents;
+            this.flight = flight;
+        }
+
+        int size() {
+            return day.length;
+        }
+
+        int firstOnOrAfter(int target) {
+            int low = 0;
+            int high = day.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (day[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+    * Immutable route graph: airport codes mapped to dense IDs and the departing legs per airport.
+    */
+    static final class RouteGraph {
+        static final RouteGraph EMPTY = new RouteGraph(Map.of(), new String[0], new AirportLegs[0]);
+
+        private final Map<String, Integer> airportIds;
+        private final String[] airports;
+        private final AirportLegs[] legs;
+
+        private RouteGraph(Map<String, Integer> airportIds, String[] airports, AirportLegs[] legs) {
+            this.airportIds = airportIds;
+            this.airports = airports;
+            this.legs = legs;
+        }
+
+        AirportLegs legs(int airport) {
+            return airport < legs.length ? legs[airport] : AirportLegs.NONE;
+        }
+
+        Set<Integer> airportIds(Set<String> codes) {
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (String code : codes) {
+                Integer id = airportIds.get(code);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        /**
+        * Builds the graph of the given flights.
+        */
+        static RouteGraph build(List<FlightDto> flights) {
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> codes = new ArrayList<>();
+            Map<String, List<FlightDto>> flightsByOrigin = new HashMap<>();
+            for (FlightDto flight : flights) {
+                if (flight.getOrigin() != null) {
+                    idOf(flight.getOrigin(), ids, codes);
+                    if (flight.getDestination() != null) {
+                        idOf(flight.getDestination(), ids, codes);
+                    }
+                    flightsByOrigin.computeIfAbsent(flight.getOrigin(), origin -> new ArrayList<>()).add(flight);
+                }
+            }
+
+            AirportLegs[] legs = new AirportLegs[codes.size()];
+            Arrays.fill(legs, AirportLegs.NONE);
+            for (Map.Entry<String, List<FlightDto>> origin : flightsByOrigin.entrySet()) {
+                legs[ids.get(origin.getKey())] = buildLegs(origin.getValue(), ids);
+            }
+            return new RouteGraph(ids, codes.toArray(new String[0]), legs);
+        }
+
+        private static int idOf(String code, Map<String, Integer> ids, List<String> codes) {
+            return ids.computeIfAbsent(code, c -> {
+                codes.add(c);
+                return codes.size() - 1;
+            });
+        }
+
+        private static AirportLegs buildLegs(List<FlightDto> flights, Map<String, Integer> ids) {
+            List<Departure> departures = new ArrayList<>();
+            for (FlightDto flight : flights) {
+                int day = epochDay(flight);
+                if (flight.getDestination() != null && day != Integer.MIN_VALUE && flight.getBasePrice() != null) {
+                    departures.add(new Departure(day, flight));
+                }
+            }
+            departures.sort(Comparator.comparingInt(Departure::day));
+
+            int size = departures.size();
+            int[] to = new int[size];
+            int[] day = new int[size];
+            long[] priceCents = new long[size];
+            FlightDto[] flight = new FlightDto[size];
+            for (int i = 0; i < size; i++) {
+                flight[i] = departures.get(i).flight();
+                to[i] = ids.get(flight[i].getDestination());
+                day[i] = departures.get(i).day();
+                priceCents[i] = flight[i].getBasePrice().movePointRight(2).longValue();
+            }
+            return new AirportLegs(to, day, priceCents, flight);
+        }
+
+        private record Departure(int day, FlightDto flight) {
+        }
+
+        private static int epochDay(FlightDto flight) {
+            try {
+                return (int) LocalDate.parse(flight.getDepartureDate()).toEpochDay();
+            } catch (DateTimeParseException | NullPointerException e) {
+                return Integer.MIN_VALUE;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package dev.rakett.lennuk.service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.SeatAnalyticsDto;
+import dev.rakett.lennuk.dto.SeatMapResponseDto;
+import dev.rakett.lennuk.model.SeatInfo;
+import dev.rakett.lennuk.model.SeatLayout;
+import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.util.CountMinSketch;
+import dev.rakett.lennuk.util.HeavyHitters;
+
+/**
+ * Service for tracking which preference combinations users ask for and which seats and rows
+ * they get recommended, as input for tuning preference weights and pricing.
+ *
+ * Each stream is counted in a count-min sketch with a heavy hitters tracker on top, so memory
+ * stays constant however many distinct keys are seen, and recording only performs atomic
+ * updates. Counts are approximate and kept in memory since startup or the last reset.
+ */
+@Service
+public class SeatAnalyticsService {
+    private final FrequencyStream preferences;
+    private final FrequencyStream seats;
+    private final FrequencyStream rows;
+    private volatile Instant since = Instant.now();
+
+    public SeatAnalyticsService(
+            @Value("${analytics.sketch.depth:4}") int depth,
+            @Value("${analytics.sketch.width:4096}") int width,
+            @Value("${analytics.top-k:50}") int topK) {
+        this.preferences = new FrequencyStream(depth, width, topK);
+        this.seats = new FrequencyStream(depth, width, topK);
+        this.rows = new FrequencyStream(depth, width, topK);
+    }
+
+    /**
+    * Records a served seat map: the requested preferences and the recommended seats and rows.
+    *
+    * @param request The seat preferences of the request.
+    * @param seatMap The seat map returned for the request.
+    */
+    public void record(SeatPreference request, SeatMapResponseDto seatMap) {
+        preferences.add(request.describe() + "/" + request.getNumberOfSeats());
+        if (seatMap.getData() == null) {
+            return;
+        }
+        Set<Integer> recommendedRows = new HashSet<>();
+        for (SeatInfo seat : seatMap.getData()) {
+            if (seat.isRecommended()) {
+                seats.add(seat.getSeatNumber());
+                recommendedRows.add(SeatLayout.rowOf(seat.getSeatNumber()));
+            }
+        }
+        recommendedRows.forEach(row -> rows.add(String.valueOf(row)));
+    }
+
+    /**
+    * Returns the most frequent preference combinations, seats and rows.
+    *
+    * @param limit Maximum number of entries per table.
+    * @return A SeatAnalyticsDto with the frequency tables.
+    */
+    public SeatAnalyticsDto getAnalytics(int limit) {
+        return SeatAnalyticsDto.builder()
+                .since(since)
+                .preferences(preferences.toTable(limit))
+                .recommendedSeats(seats.toTable(limit))
+                .recommendedRows(rows.toTable(limit))
+                .build();
+    }
+
+    public void reset() {
+        preferences.clear();
+        seats.clear();
+        rows.clear();
+        since = Instant.now();
+    }
+
+    private static final class FrequencyStream {
+        private final CountMinSketch sketch;
+        private final HeavyHitters heavyHitters;
+        private final LongAdder total = new LongAdder();
+
+        private FrequencyStream(int depth, int width, int topK) {
+            this.sketch = new CountMinSketch(depth, width);
+            this.heavyHitters = new HeavyHitters(topK);
+        }
+
+        void add(String key) {
+            total.increment();
+            heavyHitters.offer(key, sketch.add(key));
+        }
+
+        SeatAnalyticsDto.FrequencyTable toTable(int limit) {
+            long count = total.sum();
+            return SeatAnalyticsDto.FrequencyTable.builder()
+                    .total(count)
+                    .maxOvercount((long) Math.ceil(Math.E * count / sketch.getWidth()))
+                    .top(heavyHitters.top(limit).stream()
+                            .map(entry -> new SeatAnalyticsDto.Frequency(entry.getKey(), entry.getValue()))
+                            .toList())
+                    .build();
+        }
+
+        void clear() {
+            sketch.clear();
+            heavyHitters.clear();
+            total.reset();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.rakett.lennuk.service;
+
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.dto.SeatMapResponseDto;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.exception.ResourceNotFoundException;
+import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.monitoring.RequestTracing;
+import dev.rakett.lennuk.monitoring.SeatMapBuildEvent;
+import dev.rakett.lennuk.util.RequestCoalescer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service for serving seat maps with recommendations.
+ *
+ * Concurrent requests for the same flight, occupancy version and preferences share a single
+ * computation, so a spike of identical requests costs one flight load and one recommendation
+ * run per distinct key instead of one per request.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatMapService {
+    private final FlightService flightService;
+    private final SeatService seatService;
+    private final OccupancyVersions occupancyVersions;
+    private final SeatAnalyticsService seatAnalyticsService;
+    private final RequestCoalescer<SeatMapKey, SeatMapResponseDto> coalescer = new RequestCoalescer<>();
+
+    /**
+    * Retrieves the seat map of a flight with recommendations for the given preferences.
+    *
+    * @param flightId    The ID of the flight.
+    * @param preferences The seat preference criteria.
+    * @return A SeatMapResponseDto containing the full seat map with recommendations. The
+    *         result may be shared with concurrent callers and must not be modified.
+    * @throws ResourceNotFoundException If the flight is not found.
+    * @throws BadRequestException       If there are not enough available seats.
+    */
+    public SeatMapResponseDto getSeatMap(Long flightId, SeatPreference preferences) {
+        SeatMapKey key = new SeatMapKey(flightId, occupancyVersions.versionOf(flightId), normalize(preferences));
+        SeatMapResponseDto seatMap = coalescer.execute(key, () -> {
+            SeatMapBuildEvent event = new SeatMapBuildEvent();
+            event.begin();
+            Flight flight;
+            try (RequestTracing.Phase phase = RequestTracing.phase("db")) {
+                flight = flightService.getFlightById(flightId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Flight", "ID", flightId));
+            }
+            SeatMapResponseDto seatMap = seatService.getSeatMapWithRecommendations(flight, key.preferences());
+            if (event.shouldCommit()) {
+                event.flightId = flightId;
+                event.seatCount = flight.getLayout().getTotalSeats();
+                event.requestedSeats = key.preferences().getNumberOfSeats();
+                event.preferences = key.preferences().describe();
+                event.commit();
+            }
+            return seatMap;
+        });
+        seatAnalyticsService.record(key.preferences(), seatMap);
+        return seatMap;
+    }
+
+    /**
+    * Drops preferences that cannot change the result, so equivalent requests share a key:
+    * a single seat is always "together".
+    */
+    private SeatPreference normalize(SeatPreference preferences) {
+        return SeatPreference.builder()
+                .windowSeat(preferences.isWindowSeat())
+                .extraLegroom(preferences.isExtraLegroom())
+                .exitRowProximity(preferences.isExitRowProximity())
+                .numberOfSeats(preferences.getNumberOfSeats())
+                .seatsTogetherRequired(preferences.isSeatsTogetherRequired() && preferences.getNumberOfSeats() > 1)
+                .build();
+    }
+
+    private record SeatMapKey(Long flightId, long occupancyVersion, SeatPreference preferences) {
+    }
+}
@@ -0,0 +1,127 @@
+package dev.rakett.lennuk.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.stereotype.Service;
+
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.entity.OccupancyCounters;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatInfo;
+import dev.rakett.lennuk.model.SeatLayout;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service for dynamic seat pricing. Seat prices are derived from the flight's base price,
+ * its live load factor, the days left until departure and the attributes of the seat.
+ *
+ * All inputs come from the flight's occupancy counters, so pricing a seat map needs no
+ * additional queries: the prices of the eight possible attribute combinations are computed
+ * once per flight and every seat is then priced with a table lookup.
+ */
+@Service
+@Slf4j
+public class SeatPricingService {
+
+    // As with the seat preference weights, these are assumptions about what customers value.
+    public static final double LOAD_FACTOR_SURCHARGE = 0.5;
+    public static final double LAST_MINUTE_SURCHARGE = 0.3;
+    public static final int LAST_MINUTE_DAYS = 21;
+    public static final double WINDOW_PREMIUM = 0.08;
+    public static final double LEGROOM_PREMIUM = 0.20;
+    public static final double EXIT_ROW_PREMIUM = 0.12;
+
+    private static final int WINDOW = 1;
+    private static final int LEGROOM = 2;
+    private static final int EXIT_ROW = 4;
+
+    /**
+    * Builds the price table of a flight's outbound leg from its current occupancy counters.
+    *
+    * @param flight The flight to price.
+    * @return A SeatPriceTable pricing every seat of the flight.
+    */
+    public SeatPriceTable priceTable(Flight flight) {
+        return priceTable(flight, Leg.OUTBOUND);
+    }
+
+    /**
+    * Builds the price table of one leg of a flight from that leg's occupancy counters and
+    * departure date.
+    *
+    * @param flight The flight to price.
+    * @param leg    The leg to price.
+    * @return A SeatPriceTable pricing every seat of the leg.
+    */
+    public SeatPriceTable priceTable(Flight flight, Leg leg) {
+        SeatLayout layout = flight.getLayout();
+        OccupancyCounters occupancy = flight.getOccupancy(leg);
+        BigDecimal basePrice = flight.getBasePrice() != null ? flight.getBasePrice() : BigDecimal.ZERO;
+
+        double loadFactor = ratio(occupancy.getBookedCount(), layout.getTotalSeats());
+        double demand = 1 + LOAD_FACTOR_SURCHARGE * loadFactor * loadFactor
+                + LAST_MINUTE_SURCHARGE * lastMinuteFactor(flight.getDepartureDate(leg));
+
+        // Premiums grow as seats with the attribute sell out, up to double the listed premium
+        double window = WINDOW_PREMIUM
+                * (1 + ratio(occupancy.getBookedWindowCount(), layout.countWindowSeats()));
+        double legroom = LEGROOM_PREMIUM
+                * (1 + ratio(occupancy.getBookedExtraLegroomCount(), layout.countExtraLegroomSeats()));
+        double exitRow = EXIT_ROW_PREMIUM
+                * (1 + ratio(occupancy.getBookedExitRowCount(), layout.countExitRowSeats()));
+
+        BigDecimal[] prices = new BigDecimal[8];
+        for (int mask = 0; mask < prices.length; mask++) {
+            double premium = 1
+                    + ((mask & WINDOW) != 0 ? window : 0)
+                    + ((mask & LEGROOM) != 0 ? legroom : 0)
+                    + ((mask & EXIT_ROW) != 0 ? exitRow : 0);
+            prices[mask] = basePrice.multiply(BigDecimal.valueOf(demand * premium))
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+        return new SeatPriceTable(prices);
+    }
+
+    /**
+     * Scales from 0 (three weeks or more before departure) to 1 (departure day).
+     */
+    private double lastMinuteFactor(String departureDate) {
+        if (departureDate == null) {
+            return 0;
+        }
+        try {
+            long days = ChronoUnit.DAYS.between(LocalDate.now(), LocalDate.parse(departureDate));
+            return Math.max(0, LAST_MINUTE_DAYS - Math.max(0, days)) / (double) LAST_MINUTE_DAYS;
+        } catch (DateTimeParseException e) {
+            log.warn("Unparseable departure date '{}', ignoring last-minute pricing", departureDate);
+            return 0;
+        }
+    }
+
+    private double ratio(int part, int whole) {
+        return whole > 0 ? Math.min(1.0, (double) part / whole) : 0;
+    }
+
+    /**
+     * Seat prices of one flight, indexed by the seat's attribute combination.
+     */
+    public static class SeatPriceTable {
+        private final BigDecimal[] prices;
+
+        private SeatPriceTable(BigDecimal[] prices) {
+            this.prices = prices;
+        }
+
+        public BigDecimal priceOf(SeatInfo seat) {
+            return priceOf(seat.isWindow(), seat.isExtraLegroom(), seat.isExitRow());
+        }
+
+        public BigDecimal priceOf(boolean window, boolean extraLegroom, boolean exitRow) {
+            return prices[(window ? WINDOW : 0) | (extraLegroom ? LEGROOM : 0) | (exitRow ? EXIT_ROW : 0)];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dev.rakett.lennuk.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.model.Leg;
+
+/**
+ * Seats that are booked durably in the booking journal but not yet checkpointed into the
+ * database. Seat maps and booking validation treat these seats as booked.
+ *
+ * Also provides the striped per-flight locks that serialize booking validation with the
+ * checkpointer, so a seat can never be seen as free in both the database and this overlay.
+ */
+@Component
+public class SeatReservations {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<LegKey, Set<String>> pendingSeats = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    public SeatReservations() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock lockFor(Long flightId) {
+        return locks[Long.hashCode(flightId) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Returns the distinct locks of the given flights in stripe order. Callers holding several
+     * locks must acquire them in this order, so that they cannot deadlock with each other.
+     */
+    public List<Lock> locksFor(Collection<Long> flightIds) {
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (Long flightId : flightIds) {
+            stripes[Long.hashCode(flightId) & (LOCK_STRIPES - 1)] = true;
+        }
+        List<Lock> result = new ArrayList<>();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            if (stripes[i]) {
+                result.add(locks[i]);
+            }
+        }
+        return result;
+    }
+
+    public Set<String> pendingSeats(Long flightId, Leg leg) {
+        Set<String> seats = pendingSeats.get(new LegKey(flightId, leg));
+        return seats != null ? Collections.unmodifiableSet(seats) : Collections.emptySet();
+    }
+
+    public void reserve(Long flightId, Leg leg, Collection<String> seatNumbers) {
+        if (!seatNumbers.isEmpty()) {
+            pendingSeats.computeIfAbsent(new LegKey(flightId, leg), key -> ConcurrentHashMap.newKeySet())
+                    .addAll(seatNumbers);
+        }
+    }
+
+    public void release(Long flightId, Leg leg, Collection<String> seatNumbers) {
+        pendingSeats.computeIfPresent(new LegKey(flightId, leg), (key, seats) -> {
+            seats.removeAll(seatNumbers);
+            return seats.isEmpty() ? null : seats;
+        });
+    }
+
+    private record LegKey(Long flightId, Leg leg) {
+    }
+}
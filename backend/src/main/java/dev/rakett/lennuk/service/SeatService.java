@@ -2,12 +2,14 @@ package dev.rakett.lennuk.service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +17,15 @@ import dev.rakett.lennuk.dto.SeatMapResponseDto;
 import dev.rakett.lennuk.entity.BookedSeat;
 import dev.rakett.lennuk.entity.Flight;
 import dev.rakett.lennuk.exception.BadRequestException;
+import dev.rakett.lennuk.model.Leg;
 import dev.rakett.lennuk.model.SeatInfo;
+import dev.rakett.lennuk.model.SeatLayout;
 import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.monitoring.RecommendationEvent;
+import dev.rakett.lennuk.monitoring.RequestTracing;
 import dev.rakett.lennuk.repository.FlightRepository;
-import dev.rakett.lennuk.util.SeatCreator;
+import dev.rakett.lennuk.util.FlightGenerator;
+import dev.rakett.lennuk.util.GroupSeatOptimizer;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -29,38 +36,34 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SeatService {
     private final FlightRepository flightRepository;
-    private final SeatCreator seatCreator;
+    private final GroupSeatOptimizer groupSeatOptimizer;
+    private final SeatPricingService seatPricingService;
+    private final SeatReservations seatReservations;
+    private final RecommendationTables recommendationTables;
 
-    private static final int DEFAULT_ROWS = 15;
-    private static final int DEFAULT_SEATS_PER_ROW = 6;
+    private static final double INITIAL_LOAD_FACTOR = 0.3;
+
+    @Value("${inventory.generator.seed:42}")
+    private long seed;
 
     /**
     * Initializes booked seats for all flights in the database.
     * Clears any previously booked seats and randomly assigns new booked seats
-    * for approximately 30% of the total available seats.
+    * for approximately 30% of the total available seats. The seats are drawn from a
+    * random source seeded per flight, so the same seed always books the same seats.
     */
     @Transactional
     public void initializeBookedSeats() {
         List<Flight> flights = flightRepository.findAll();
-        Random random = new Random();
         for (Flight flight : flights) {
             flight.clearBookedSeats();
-            List<SeatInfo> allSeats = seatCreator.createSeatsForFlight(
-                    flight.getId(),
-                    flight.getRows() != null ? flight.getRows() : DEFAULT_ROWS,
-                    flight.getSeatsPerRow() != null ? flight.getSeatsPerRow() : DEFAULT_SEATS_PER_ROW);
-            int seatsToBook = (int) (allSeats.size() * 0.3);
-            for (int i = 0; i < seatsToBook; i++) {
-                int randomIndex = random.nextInt(allSeats.size());
-                SeatInfo seat = allSeats.remove(randomIndex);
-                flight.addBookedSeat(seat.getSeatNumber());
-            }
-            flightRepository.save(flight);
+            FlightGenerator.seedOccupancy(flight, INITIAL_LOAD_FACTOR, new SplittableRandom(seed ^ flight.getId()));
         }
     }
 
     /**
-    * Retrieves the seat map for a given flight, marking booked seats.
+    * Retrieves the outbound seat map for a given flight, marking booked seats. Seats booked in
+    * the booking journal but not yet checkpointed into the database are marked as booked too.
     * 
     * @param flight The flight for which the seat map is required.
     * @return A list of SeatInfo objects representing the seat map.
@@ -71,22 +74,23 @@ public class SeatService {
         if (flight == null) {
             throw new BadRequestException("Flight cannot be null");
         }
-
-        List<SeatInfo> allSeats = generateSeatMap(flight);
-        Set<String> bookedSeatNumbers = flight.getBookedSeats().stream()
-                .map(BookedSeat::getSeatNumber)
-                .collect(Collectors.toSet());
-        allSeats.forEach(seat -> seat.setBooked(bookedSeatNumbers.contains(seat.getSeatNumber())));
-        return allSeats;
+        return buildSeatMaps(flight).outbound();
     }
 
     /**
-    * Retrieves the seat map for a given flight and provides seat recommendations
-    * based on passenger preferences.
+    * Retrieves the seat maps of both legs of a given flight and provides seat recommendations
+    * based on passenger preferences. Every seat is priced from the current load of its leg.
+    *
+    * On a round trip, seats free on both legs are recommended first, so passengers keep the same
+    * seats on the way back. Only if too few seats are free on both legs is each leg recommended
+    * on its own.
+    *
+    * Recommendations are looked up in the flight's recommendation table and only computed
+    * when the table has no entry for the preferences that is still valid for the current occupancy.
     * 
     * @param flight The flight for which seat recommendations are needed.
     * @param preferences The seat preference criteria.
-    * @return A SeatMapResponseDto containing the full seat map with recommendations.
+    * @return A SeatMapResponseDto containing the full seat maps with recommendations.
     * @throws BadRequestException If flight or preferences are null, or if there are not enough available seats.
     */
     @Transactional(readOnly = true)
@@ -94,24 +98,77 @@ public class SeatService {
         // Validate input
         validateInput(flight, preferences);
 
-        List<SeatInfo> allSeats = getSeatMap(flight);
-        List<SeatInfo> availableSeats = allSeats.stream()
-                .filter(seat -> !seat.isBooked())
-                .collect(Collectors.toList());
-
-        if (availableSeats.size() < preferences.getNumberOfSeats()) {
+        SeatMaps seatMaps;
+        try (RequestTracing.Phase phase = RequestTracing.phase("seatmap")) {
+            seatMaps = buildSeatMaps(flight);
+        }
+        int requested = preferences.getNumberOfSeats();
+        if (seatMaps.outboundAvailable().size() < requested) {
             throw new BadRequestException("Not enough available seats on this flight");
         }
+        if (seatMaps.isRoundTrip() && seatMaps.returnAvailable().size() < requested) {
+            throw new BadRequestException("Not enough available seats on the return flight");
+        }
 
         // Calculate scores
-        availableSeats.forEach(seat -> seat.setRecommendationScore(
-                preferences.calculateScore(seat.isWindow(), seat.isExtraLegroom(), seat.isExitRow())));
+        try (RequestTracing.Phase phase = RequestTracing.phase("score")) {
+            score(seatMaps.outboundAvailable(), preferences);
+            if (seatMaps.isRoundTrip()) {
+                score(seatMaps.returnAvailable(), preferences);
+            }
+        }
 
         // Find recommended seats
-        List<SeatInfo> recommendedSeats = findRecommendedSeats(availableSeats, preferences);
-        markRecommendedSeats(allSeats, recommendedSeats);
+        try (RequestTracing.Phase phase = RequestTracing.phase("recommend")) {
+            RecommendationEvent event = new RecommendationEvent();
+            event.begin();
+            List<SeatInfo> candidates = seatMaps.bothLegsAvailable();
+            if (candidates.size() >= requested) {
+                // Seats booked on either leg are occupied for a matching pair
+                RecommendationTables.Recommendation recommendation = recommendationTables.lookup(
+                        flight.getId(), flight.getDepartureDate(), seatMaps.occupiedOnEitherLeg(), preferences,
+                        () -> {
+                            event.searched = true;
+                            return findRecommendedSeats(candidates, flight.getLayout(), preferences);
+                        });
+                markRecommendedSeats(seatMaps.outbound(), recommendation.seatNumbers());
+                if (seatMaps.isRoundTrip()) {
+                    markRecommendedSeats(seatMaps.returnSeats(), recommendation.seatNumbers());
+                }
+            } else {
+                // The table is keyed by the occupancy of both legs, so per-leg results are not stored
+                event.searched = true;
+                markRecommendedSeats(seatMaps.outbound(), findRecommendedSeats(seatMaps.outboundAvailable(),
+                        flight.getLayout(), preferences).seatNumbers());
+                markRecommendedSeats(seatMaps.returnSeats(), findRecommendedSeats(seatMaps.returnAvailable(),
+                        flight.getLayout(), preferences).seatNumbers());
+            }
+            if (event.shouldCommit()) {
+                event.flightId = flight.getId();
+                event.availableSeats = candidates.size();
+                event.requestedSeats = requested;
+                event.preferences = preferences.describe();
+                event.commit();
+            }
+        }
+
+        try (RequestTracing.Phase phase = RequestTracing.phase("price")) {
+            price(seatMaps.outbound(), seatPricingService.priceTable(flight, Leg.OUTBOUND));
+            if (seatMaps.isRoundTrip()) {
+                price(seatMaps.returnSeats(), seatPricingService.priceTable(flight, Leg.RETURN));
+            }
+        }
+
+        return new SeatMapResponseDto(seatMaps.outbound(), seatMaps.isRoundTrip() ? seatMaps.returnSeats() : null);
+    }
 
-        return new SeatMapResponseDto(allSeats);
+    private void score(List<SeatInfo> seats, SeatPreference preferences) {
+        seats.forEach(seat -> seat.setRecommendationScore(
+                preferences.calculateScore(seat.isWindow(), seat.isExtraLegroom(), seat.isExitRow())));
+    }
+
+    private void price(List<SeatInfo> seats, SeatPricingService.SeatPriceTable prices) {
+        seats.forEach(seat -> seat.setPrice(prices.priceOf(seat)));
     }
 
     /**
@@ -132,32 +189,71 @@ public class SeatService {
     }
 
     /**
-    * Generates a seat map for a given flight.
+    * Generates the seat maps of both legs of a given flight in one pass over its layout,
+    * marking the seats booked or pending on each leg. The booked seats of both legs are
+    * loaded together with the flight.
     * 
-    * @param flight The flight for which the seat map is generated.
-    * @return A list of SeatInfo objects representing the flight's seat layout.
+    * @param flight The flight for which the seat maps are generated.
+    * @return The seat maps and available seats of both legs. The return leg is empty for
+    *         one-way flights.
     */
-    private List<SeatInfo> generateSeatMap(Flight flight) {
-        List<SeatInfo> seats = new ArrayList<>();
-        int rows = flight.getRows() != null ? flight.getRows() : DEFAULT_ROWS;
-        int seatsPerRow = flight.getSeatsPerRow() != null ? flight.getSeatsPerRow() : DEFAULT_SEATS_PER_ROW;
-
-        for (int row = 1; row <= rows; row++) {
-            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
-                SeatInfo seatInfo = new SeatInfo();
-                seatInfo.setSeatNumber(String.valueOf(row) + (char) ('A' + seatNum - 1));
-
-                seatInfo.setWindow(seatNum == 1 || seatNum == 6); // A and F
-                seatInfo.setAisle(seatNum == 3 || seatNum == 4); // C and D
-
-                seatInfo.setExitRow(row <= 2 || row >= rows - 1);
-
-                seatInfo.setExtraLegroom(row == 1);
+    private SeatMaps buildSeatMaps(Flight flight) {
+        SeatLayout layout = flight.getLayout();
+        boolean roundTrip = flight.hasReturnLeg();
+        Set<String> outboundBooked = new HashSet<>(seatReservations.pendingSeats(flight.getId(), Leg.OUTBOUND));
+        Set<String> returnBooked = new HashSet<>(seatReservations.pendingSeats(flight.getId(), Leg.RETURN));
+        for (BookedSeat seat : flight.getBookedSeats()) {
+            (seat.getLeg() == Leg.RETURN ? returnBooked : outboundBooked).add(seat.getSeatNumber());
+        }
 
-                seats.add(seatInfo);
+        int totalSeats = layout.getTotalSeats();
+        SeatMaps seatMaps = new SeatMaps(roundTrip, new ArrayList<>(totalSeats), new ArrayList<>(),
+                new ArrayList<>(totalSeats), new ArrayList<>(), new ArrayList<>(totalSeats), new HashSet<>());
+        for (int row = 1; row <= layout.getRows(); row++) {
+            for (int seatNum = 1; seatNum <= layout.getSeatsPerRow(); seatNum++) {
+                String seatNumber = layout.seatNumber(row, seatNum);
+                SeatInfo outbound = seatInfo(layout, row, seatNum, seatNumber, outboundBooked.contains(seatNumber));
+                seatMaps.outbound().add(outbound);
+                boolean returnFree = true;
+                if (roundTrip) {
+                    SeatInfo inbound = seatInfo(layout, row, seatNum, seatNumber, returnBooked.contains(seatNumber));
+                    seatMaps.returnSeats().add(inbound);
+                    returnFree = !inbound.isBooked();
+                    if (returnFree) {
+                        seatMaps.returnAvailable().add(inbound);
+                    }
+                }
+                if (!outbound.isBooked()) {
+                    seatMaps.outboundAvailable().add(outbound);
+                }
+                if (!outbound.isBooked() && returnFree) {
+                    seatMaps.bothLegsAvailable().add(outbound);
+                } else {
+                    seatMaps.occupiedOnEitherLeg().add(seatNumber);
+                }
             }
         }
-        return seats;
+        return seatMaps;
+    }
+
+    private SeatInfo seatInfo(SeatLayout layout, int row, int seatNum, String seatNumber, boolean booked) {
+        SeatInfo seatInfo = new SeatInfo();
+        seatInfo.setSeatNumber(seatNumber);
+        seatInfo.setWindow(layout.isWindow(seatNum));
+        seatInfo.setAisle(layout.isAisle(seatNum));
+        seatInfo.setExitRow(layout.isExitRow(row));
+        seatInfo.setExtraLegroom(layout.isExtraLegroom(row));
+        seatInfo.setBooked(booked);
+        return seatInfo;
+    }
+
+    /**
+     * Seat maps of both legs in layout order, with the available seats of each leg and the
+     * outbound seats that are also free on the return leg.
+     */
+    private record SeatMaps(boolean isRoundTrip, List<SeatInfo> outbound, List<SeatInfo> outboundAvailable,
+            List<SeatInfo> returnSeats, List<SeatInfo> returnAvailable, List<SeatInfo> bothLegsAvailable,
+            Set<String> occupiedOnEitherLeg) {
     }
 
     /**
@@ -166,30 +262,33 @@ public class SeatService {
     * Otherwise, it selects the highest-scoring individual seats.
     * 
     * @param availableSeats The list of available (unbooked) seats.
+    * @param layout The cabin layout of the flight.
     * @param preferences The seat preference criteria.
-    * @return A list of recommended SeatInfo objects.
+    * @return The recommended seats.
     * @throws BadRequestException If the requested number of seats together cannot be found.
     */
-    private List<SeatInfo> findRecommendedSeats(List<SeatInfo> availableSeats, SeatPreference preferences) {
+    private RecommendationTables.Recommendation findRecommendedSeats(List<SeatInfo> availableSeats, SeatLayout layout,
+            SeatPreference preferences) {
         if (preferences.isSeatsTogetherRequired() && preferences.getNumberOfSeats() > 1) {
-            return findSeatsTogether(availableSeats, preferences);
+            return findSeatsTogether(availableSeats, layout, preferences);
         } else {
-            return availableSeats.stream()
-                    .sorted(Comparator.comparingInt(SeatInfo::getRecommendationScore).reversed())
-                    .limit(preferences.getNumberOfSeats())
-                    .collect(Collectors.toList());
+            return new RecommendationTables.Recommendation(bestIndividualSeats(availableSeats, preferences), true);
         }
     }
 
     /**
     * Attempts to find adjacent seats in the same row for a group booking.
+    * If no row can seat the whole party, the group seat optimizer looks for a block
+    * spanning adjacent rows before falling back to the best individual seats.
     * 
     * @param availableSeats The list of available (unbooked) seats.
+    * @param layout The cabin layout of the flight.
     * @param preferences The seat preference criteria.
-    * @return A list of adjacent seats matching the requested number.
+    * @return The recommended seats. Only single-row groups are reusable.
     * @throws BadRequestException If the requested number of seats together cannot be found.
     */
-    private List<SeatInfo> findSeatsTogether(List<SeatInfo> availableSeats, SeatPreference preferences) {
+    private RecommendationTables.Recommendation findSeatsTogether(List<SeatInfo> availableSeats, SeatLayout layout,
+            SeatPreference preferences) {
         // Group seats by row
         Map<Integer, List<SeatInfo>> seatsByRow = availableSeats.stream()
                 .collect(Collectors.groupingBy(seat -> getRowNumber(seat.getSeatNumber())));
@@ -243,16 +342,37 @@ public class SeatService {
 
         // If we have viable groups, return the one with highest score
         if (!candidateGroups.isEmpty()) {
-            return candidateGroups.stream()
+            List<SeatInfo> bestGroup = candidateGroups.stream()
                     .max(Comparator
                             .comparingInt(group -> group.stream().mapToInt(SeatInfo::getRecommendationScore).sum()))
                     .orElse(candidateGroups.get(0));
+            return new RecommendationTables.Recommendation(seatNumbers(bestGroup), true);
+        }
+
+        // Look for a block spanning adjacent rows
+        List<SeatInfo> block = groupSeatOptimizer.findBlock(availableSeats, layout, preferences.getNumberOfSeats());
+        if (!block.isEmpty()) {
+            return new RecommendationTables.Recommendation(seatNumbers(block), false);
         }
 
         // Fallback to best individual seats if no adjacent groups match criteria
+        return new RecommendationTables.Recommendation(bestIndividualSeats(availableSeats, preferences), false);
+    }
+
+    /**
+    * Selects the highest-scoring individual seats, keeping seat map order between equal scores.
+    */
+    private List<String> bestIndividualSeats(List<SeatInfo> availableSeats, SeatPreference preferences) {
         return availableSeats.stream()
                 .sorted(Comparator.comparingInt(SeatInfo::getRecommendationScore).reversed())
                 .limit(preferences.getNumberOfSeats())
+                .map(SeatInfo::getSeatNumber)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> seatNumbers(List<SeatInfo> seats) {
+        return seats.stream()
+                .map(SeatInfo::getSeatNumber)
                 .collect(Collectors.toList());
     }
 
@@ -282,12 +402,10 @@ public class SeatService {
     * Marks the recommended seats in the full seat map.
     * 
     * @param allSeats The complete list of seats.
-    * @param recommendedSeats The list of seats that are recommended.
+    * @param recommendedSeats The numbers of the seats that are recommended.
     */
-    private void markRecommendedSeats(List<SeatInfo> allSeats, List<SeatInfo> recommendedSeats) {
-        Set<String> recommendedSeatNumbers = recommendedSeats.stream()
-                .map(SeatInfo::getSeatNumber)
-                .collect(Collectors.toSet());
+    private void markRecommendedSeats(List<SeatInfo> allSeats, List<String> recommendedSeats) {
+        Set<String> recommendedSeatNumbers = Set.copyOf(recommendedSeats);
         allSeats.forEach(seat -> seat.setRecommended(recommendedSeatNumbers.contains(seat.getSeatNumber())));
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package dev.rakett.lennuk.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.model.SeatPreference;
+import dev.rakett.lennuk.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-customer ticket counts per flight, enforcing the limit of seats one customer can book
+ * on a flight without a database round trip.
+ *
+ * Counts live in a concurrent map per flight and are updated atomically per customer, so
+ * bookings for different flights or customers never contend. A count only exists while its
+ * customer holds tickets, so memory is bounded by the number of booked seats; flights are
+ * dropped once they have departed.
+ *
+ * Booked seats record the customer who booked them, and the counts are rebuilt from them at
+ * startup. The limit is not enforced across instances of a cluster: each instance counts the
+ * bookings in the database when it started plus the bookings it made itself. Public bookings are
+ * counted against the client address; only the bulk feed of trusted partners names its customers.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TicketQuotas {
+    public static final int MAX_TICKETS_PER_FLIGHT = SeatPreference.MAX_NUMBER_OF_SEATS;
+
+    private final FlightRepository flightRepository;
+    private final Map<Long, FlightQuotas> flights = new ConcurrentHashMap<>();
+
+    /**
+    * Atomically adds tickets to a customer's count for a flight, unless that would exceed the limit.
+    *
+    * @param flightId      The ID of the flight.
+    * @param departureDate The departure date of the flight (yyyy-MM-dd), used for eviction.
+    * @param customerId    The customer booking the tickets.
+    * @param tickets       The number of tickets to add.
+    * @return The number of tickets the customer already had, or -1 if the limit would be exceeded.
+    */
+    public int tryAcquire(Long flightId, String departureDate, String customerId, int tickets) {
+        if (tickets > MAX_TICKETS_PER_FLIGHT) {
+            return -1;
+        }
+        int[] held = { -1 };
+        flights.computeIfAbsent(flightId, id -> new FlightQuotas(parseDate(departureDate)))
+                .counts.compute(customerId, (id, current) -> {
+                    int count = current != null ? current : 0;
+                    if (count + tickets > MAX_TICKETS_PER_FLIGHT) {
+                        return current;
+                    }
+                    held[0] = count;
+                    return count + tickets;
+                });
+        return held[0];
+    }
+
+    /**
+    * Gives back tickets acquired for a booking that did not go through.
+    */
+    public void release(Long flightId, String customerId, int tickets) {
+        FlightQuotas quotas = flights.get(flightId);
+        if (quotas != null) {
+            quotas.counts.computeIfPresent(customerId, (id, count) -> count > tickets ? count - tickets : null);
+        }
+    }
+
+    /**
+    * Rebuilds the counts from the customers recorded on booked seats. A customer's count on a
+    * flight is their number of seats on the busier leg, which is what their bookings added up to
+    * unless they booked the two legs in separate requests. Counts already held are kept if higher.
+    */
+    public void rebuild() {
+        int customers = 0;
+        for (Object[] row : flightRepository.countBookedSeatsByCustomerAndLeg()) {
+            Long flightId = (Long) row[0];
+            String customerId = (String) row[2];
+            int seats = ((Number) row[3]).intValue();
+            flights.computeIfAbsent(flightId, id -> new FlightQuotas(parseDate((String) row[1])))
+                    .counts.merge(customerId, seats, Math::max);
+            customers++;
+        }
+        log.info("Rebuilt ticket counts from {} customer bookings per leg", customers);
+    }
+
+    /**
+    * Drops the counts of flights that have departed.
+    */
+    @Scheduled(cron = "${booking.quota.eviction-cron:0 0 * * * *}")
+    public void evictDepartedFlights() {
+        LocalDate today = LocalDate.now();
+        int before = flights.size();
+        flights.values().removeIf(quotas -> quotas.departureDate != null && quotas.departureDate.isBefore(today));
+        log.debug("Evicted ticket quotas of {} departed flights", before - flights.size());
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class FlightQuotas {
+        private final LocalDate departureDate;
+        private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+        private FlightQuotas(LocalDate departureDate) {
+            this.departureDate = departureDate;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.rakett.lennuk.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit using additive increase, multiplicative decrease (AIMD).
+ *
+ * The limit grows by one for every full window of requests that complete within the latency
+ * target while the limiter is at least half utilised, and is cut by the backoff ratio whenever
+ * a request is slower than the target. Requests beyond the current limit are rejected at once,
+ * instead of queueing for threads and connections they would only get after their callers gave up.
+ */
+public class AimdLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limiter configuration");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+    * Tries to admit a request.
+    *
+    * @return true if the request may proceed, in which case {@link #release(long)} must be called.
+    */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+    * Releases an admitted request and adjusts the limit based on its latency.
+    *
+    * @param latencyNanos How long the request took.
+    */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                // Only grow while the limit is actually being used, so it cannot drift upwards when idle
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
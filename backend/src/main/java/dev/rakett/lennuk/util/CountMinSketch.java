@@ -0,0 +1,84 @@
+package dev.rakett.lennuk.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch: approximate frequencies of a stream of keys in constant memory.
+ *
+ * Each key increments one counter in each of depth rows. Its estimate is the smallest of those
+ * counters, which never undercounts and overcounts by at most about e/width of the total count
+ * with probability 1 - e^-depth. Counters are updated with atomic adds, so concurrent updates
+ * never block each other.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    /**
+    * @param depth The number of rows (independent hash functions).
+    * @param width The number of counters per row, rounded up to a power of two.
+    */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Depth and width must be positive");
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = roundedWidth - 1;
+        this.counters = new AtomicLongArray(depth * roundedWidth);
+    }
+
+    /**
+    * Adds one occurrence of a key and returns its updated estimate.
+    */
+    public long add(String key) {
+        long hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int getWidth() {
+        return widthMask + 1;
+    }
+
+    private int index(long hash, int row) {
+        // Double hashing: row i uses h1 + i * h2, finalized to spread the bits
+        long combined = mix((int) hash + (long) row * (hash >>> 32));
+        return row * (widthMask + 1) + (int) (combined & widthMask);
+    }
+
+    private static long hash(String key) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,174 @@
+package dev.rakett.lennuk.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.model.Leg;
+import dev.rakett.lennuk.model.SeatLayout;
+
+/**
+ * Generates synthetic flights with mixed aircraft geometries and seeded occupancy.
+ *
+ * Every flight is derived from the seed, the base date and its index alone, so the same seed and
+ * base date always produce the same inventory, no matter how many threads generate it or in
+ * which order.
+ */
+@Component
+public class FlightGenerator {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long INDEX_MIX = 0x9E3779B97F4A7C15L;
+    private static final double MAX_LOAD_FACTOR = 0.98;
+
+    private static final String[] LONDON_AIRPORTS = { "LHR", "LGW", "STN", "LCY", "LTN", "SEN" };
+    private static final String[][] AIRPORTS = {
+            { "LHR", "HEATHROW" }, { "LGW", "GATWICK" }, { "STN", "STANSTED" }, { "LCY", "CITY AIRPORT" },
+            { "LTN", "LUTON" }, { "SEN", "SOUTHEND" }, { "CDG", "CHARLES DE GAULLE" }, { "ORY", "ORLY" },
+            { "AMS", "SCHIPHOL" }, { "FRA", "FRANKFURT INTL" }, { "MUC", "FRANZ JOSEF STRAUSS" },
+            { "MAD", "ADOLFO SUAREZ BARAJAS" }, { "BCN", "EL PRAT" }, { "FCO", "FIUMICINO" },
+            { "MXP", "MALPENSA" }, { "LIN", "LINATE" }, { "ZRH", "ZURICH" }, { "VIE", "SCHWECHAT" },
+            { "CPH", "KASTRUP" }, { "ARN", "ARLANDA" }, { "OSL", "GARDERMOEN" }, { "HEL", "VANTAA" },
+            { "TLL", "LENNART MERI" }, { "RIX", "RIGA INTL" }, { "WAW", "CHOPIN" }, { "PRG", "VACLAV HAVEL" },
+            { "BUD", "LISZT FERENC INTL" }, { "DUB", "DUBLIN INTERNATIONAL" }, { "LIS", "HUMBERTO DELGADO" },
+            { "ATH", "ELEFTHERIOS VENIZELOS" }, { "IST", "ISTANBUL AIRPORT" }, { "JFK", "JOHN F KENNEDY INTL" },
+            { "EWR", "NEWARK LIBERTY INTL" }, { "DXB", "DUBAI INTL" }, { "SIN", "CHANGI" }
+    };
+
+    /**
+    * Aircraft geometries: seat layout, row range and relative frequency.
+    */
+    private enum Geometry {
+        REGIONAL("2-2", 12, 20, 15),
+        NARROW_BODY("3-3", 20, 32, 55),
+        WIDE_BODY_8("2-4-2", 25, 35, 10),
+        WIDE_BODY_9("3-3-3", 30, 40, 10),
+        WIDE_BODY_10("3-4-3", 35, 45, 10);
+
+        private final String layout;
+        private final int minRows;
+        private final int maxRows;
+        private final int weight;
+
+        Geometry(String layout, int minRows, int maxRows, int weight) {
+            this.layout = layout;
+            this.minRows = minRows;
+            this.maxRows = maxRows;
+            this.weight = weight;
+        }
+
+        int seatsPerRow() {
+            int seats = 0;
+            for (String group : layout.split("-")) {
+                seats += Integer.parseInt(group);
+            }
+            return seats;
+        }
+
+        static Geometry pick(SplittableRandom random) {
+            int total = 0;
+            for (Geometry geometry : values()) {
+                total += geometry.weight;
+            }
+            int choice = random.nextInt(total);
+            for (Geometry geometry : values()) {
+                choice -= geometry.weight;
+                if (choice < 0) {
+                    return geometry;
+                }
+            }
+            return NARROW_BODY;
+        }
+    }
+
+    /**
+    * Generates the flight with the given index, including its booked seats.
+    *
+    * @param seed             The inventory seed.
+    * @param index            The index of the flight in the inventory.
+    * @param baseDate         The date departures are counted from.
+    * @param loadFactorMean   Mean of the target load factor distribution.
+    * @param loadFactorStdDev Standard deviation of the target load factor distribution.
+    * @return A new, unsaved flight.
+    */
+    public Flight generate(long seed, long index, LocalDate baseDate, double loadFactorMean,
+            double loadFactorStdDev) {
+        SplittableRandom random = new SplittableRandom(seed + index * INDEX_MIX);
+
+        String[] origin = random.nextInt(10) < 6
+                ? airport(LONDON_AIRPORTS[random.nextInt(LONDON_AIRPORTS.length)])
+                : AIRPORTS[random.nextInt(AIRPORTS.length)];
+        String[] destination;
+        do {
+            destination = AIRPORTS[random.nextInt(AIRPORTS.length)];
+        } while (destination[0].equals(origin[0]));
+
+        LocalDate departureDate = baseDate.plusDays(1 + random.nextInt(180));
+        Geometry geometry = Geometry.pick(random);
+
+        Flight flight = new Flight();
+        flight.setOrigin(origin[0]);
+        flight.setDestination(destination[0]);
+        flight.setDepartureDate(departureDate.format(DATE_FORMATTER));
+        flight.setReturnDate(departureDate.plusDays(2 + random.nextInt(13)).format(DATE_FORMATTER));
+        flight.setBasePrice(BigDecimal.valueOf(40 + 560 * random.nextDouble()).setScale(2, RoundingMode.HALF_UP));
+        flight.setSubType("AIRPORT");
+        flight.setOriginDetailedName(origin[1]);
+        flight.setDestinationDetailedName(destination[1]);
+        flight.setRows(geometry.minRows + random.nextInt(geometry.maxRows - geometry.minRows + 1));
+        flight.setSeatsPerRow(geometry.seatsPerRow());
+        flight.setSeatLayout(geometry.layout);
+
+        double loadFactor = loadFactorMean + loadFactorStdDev * random.nextGaussian();
+        seedOccupancy(flight, Math.max(0, Math.min(MAX_LOAD_FACTOR, loadFactor)), random);
+        return flight;
+    }
+
+    /**
+    * Books a random share of the seats on each leg of a flight, using a partial Fisher-Yates
+    * shuffle over the seat indices: O(seats) time and every seat equally likely, without
+    * repeated list removals. Both legs get the same load factor but independently drawn seats.
+    *
+    * @param flight     The flight to book seats on.
+    * @param loadFactor The share of seats to book.
+    * @param random     The random source.
+    */
+    public static void seedOccupancy(Flight flight, double loadFactor, SplittableRandom random) {
+        seedOccupancy(flight, Leg.OUTBOUND, loadFactor, random);
+        if (flight.hasReturnLeg()) {
+            seedOccupancy(flight, Leg.RETURN, loadFactor, random);
+        }
+    }
+
+    private static void seedOccupancy(Flight flight, Leg leg, double loadFactor, SplittableRandom random) {
+        SeatLayout layout = flight.getLayout();
+        int totalSeats = layout.getTotalSeats();
+        int seatsToBook = (int) (totalSeats * loadFactor);
+        int[] seats = new int[totalSeats];
+        for (int i = 0; i < totalSeats; i++) {
+            seats[i] = i;
+        }
+        for (int i = 0; i < seatsToBook; i++) {
+            int j = i + random.nextInt(totalSeats - i);
+            int seat = seats[j];
+            seats[j] = seats[i];
+            seats[i] = seat;
+            flight.addBookedSeat(layout.seatNumber(seat / layout.getSeatsPerRow() + 1,
+                    seat % layout.getSeatsPerRow() + 1), leg);
+        }
+    }
+
+    private static String[] airport(String code) {
+        for (String[] airport : AIRPORTS) {
+            if (airport[0].equals(code)) {
+                return airport;
+            }
+        }
+        return new String[] { code, "UNKNOWN AIRPORT" };
+    }
+}
@@ -0,0 +1,219 @@
+package dev.rakett.lennuk.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.rakett.lennuk.model.SeatInfo;
+import dev.rakett.lennuk.model.SeatLayout;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finds seating blocks for parties that cannot be seated in a single contiguous run of one row.
+ *
+ * A block is one contiguous run of free seats per row over consecutive rows, where the runs of
+ * neighbouring rows overlap so that the party sits beside or directly behind each other. Runs may
+ * cross an aisle (an aisle-split pair), which is penalised, as is every extra row the block spans.
+ * The search is a dynamic program over the runs of each row, pruned with an upper bound on the
+ * achievable score and stopped once the latency budget is spent.
+ */
+@Component
+@Slf4j
+public class GroupSeatOptimizer {
+    public static final int AISLE_SPLIT_PENALTY = 4;
+    public static final int EXTRA_ROW_PENALTY = 6;
+
+    private static final int UNREACHABLE = Integer.MIN_VALUE;
+
+    private final long budgetNanos;
+
+    public GroupSeatOptimizer(@Value("${seating.optimizer.budget-ms:25}") long budgetMillis) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+    }
+
+    /**
+    * Finds the best-scoring block of seats for a party.
+    *
+    * @param availableSeats The available seats, with recommendation scores already calculated.
+    * @param layout         The cabin layout of the flight.
+    * @param numberOfSeats  The size of the party.
+    * @return The seats of the best block found, or an empty list if no block fits.
+    */
+    public List<SeatInfo> findBlock(List<SeatInfo> availableSeats, SeatLayout layout, int numberOfSeats) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Map<String, SeatInfo> seatsByNumber = availableSeats.stream()
+                .collect(Collectors.toMap(SeatInfo::getSeatNumber, Function.identity()));
+
+        int rows = layout.getRows();
+        int[][] scores = new int[rows + 1][];
+        for (int row = 1; row <= rows; row++) {
+            scores[row] = new int[layout.getSeatsPerRow() + 1];
+            Arrays.fill(scores[row], UNREACHABLE);
+        }
+        for (SeatInfo seat : availableSeats) {
+            int row = SeatLayout.rowOf(seat.getSeatNumber());
+            int column = SeatLayout.columnOf(seat.getSeatNumber());
+            if (row >= 1 && row <= rows && column >= 1 && column <= layout.getSeatsPerRow()) {
+                scores[row][column] = seat.getRecommendationScore();
+            }
+        }
+
+        List<List<Run>> runsByRow = new ArrayList<>(rows + 1);
+        runsByRow.add(Collections.emptyList());
+        for (int row = 1; row <= rows; row++) {
+            runsByRow.add(findRuns(scores[row], layout, numberOfSeats));
+        }
+
+        int maxSpan = Math.min(rows, (numberOfSeats + layout.getSeatsPerRow() - 1) / layout.getSeatsPerRow() + 1);
+        Block best = null;
+        for (int startRow = 1; startRow <= rows; startRow++) {
+            if (System.nanoTime() > deadline) {
+                log.debug("Group seat search hit its latency budget at row {} of {}", startRow, rows);
+                break;
+            }
+            int span = Math.min(maxSpan, rows - startRow + 1);
+            if (best != null && upperBound(scores, startRow, span, numberOfSeats) <= best.score) {
+                continue;
+            }
+            Block candidate = searchFrom(runsByRow, startRow, span, numberOfSeats);
+            if (candidate != null && (best == null || candidate.score > best.score)) {
+                best = candidate;
+            }
+        }
+
+        if (best == null) {
+            return Collections.emptyList();
+        }
+        List<SeatInfo> block = new ArrayList<>(numberOfSeats);
+        for (int i = 0; i < best.runs.size(); i++) {
+            Run run = best.runs.get(i);
+            for (int column = run.start; column <= run.end; column++) {
+                block.add(seatsByNumber.get(layout.seatNumber(best.startRow + i, column)));
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Runs the row-by-row dynamic program for blocks whose first row is startRow.
+     * State: (depth, run index, seats placed so far) -> best score, with back pointers.
+     */
+    private Block searchFrom(List<List<Run>> runsByRow, int startRow, int span, int numberOfSeats) {
+        int[][][] score = new int[span][][];
+        int[][][] parent = new int[span][][];
+        Block best = null;
+
+        for (int depth = 0; depth < span; depth++) {
+            List<Run> runs = runsByRow.get(startRow + depth);
+            score[depth] = new int[runs.size()][numberOfSeats + 1];
+            parent[depth] = new int[runs.size()][numberOfSeats + 1];
+            for (int[] row : score[depth]) {
+                Arrays.fill(row, UNREACHABLE);
+            }
+
+            for (int r = 0; r < runs.size(); r++) {
+                Run run = runs.get(r);
+                if (depth == 0) {
+                    score[0][r][run.size()] = run.score;
+                    parent[0][r][run.size()] = -1;
+                    continue;
+                }
+                List<Run> previousRuns = runsByRow.get(startRow + depth - 1);
+                for (int p = 0; p < previousRuns.size(); p++) {
+                    if (!previousRuns.get(p).overlaps(run)) {
+                        continue;
+                    }
+                    for (int placed = 1; placed + run.size() <= numberOfSeats; placed++) {
+                        int previous = score[depth - 1][p][placed];
+                        if (previous == UNREACHABLE) {
+                            continue;
+                        }
+                        int total = previous + run.score - EXTRA_ROW_PENALTY;
+                        if (total > score[depth][r][placed + run.size()]) {
+                            score[depth][r][placed + run.size()] = total;
+                            parent[depth][r][placed + run.size()] = p;
+                        }
+                    }
+                }
+            }
+
+            for (int r = 0; r < runs.size(); r++) {
+                int total = score[depth][r][numberOfSeats];
+                if (total != UNREACHABLE && (best == null || total > best.score)) {
+                    best = new Block(startRow, total, backtrack(runsByRow, parent, startRow, depth, r, numberOfSeats));
+                }
+            }
+        }
+        return best;
+    }
+
+    private List<Run> backtrack(List<List<Run>> runsByRow, int[][][] parent, int startRow, int depth, int runIndex,
+            int placed) {
+        Run[] runs = new Run[depth + 1];
+        for (int d = depth; d >= 0; d--) {
+            Run run = runsByRow.get(startRow + d).get(runIndex);
+            runs[d] = run;
+            runIndex = parent[d][runIndex][placed];
+            placed -= run.size();
+        }
+        return Arrays.asList(runs);
+    }
+
+    /**
+     * Enumerates every contiguous run of free seats in a row that is no larger than the party.
+     */
+    private List<Run> findRuns(int[] rowScores, SeatLayout layout, int numberOfSeats) {
+        List<Run> runs = new ArrayList<>();
+        for (int start = 1; start < rowScores.length; start++) {
+            int total = 0;
+            for (int end = start; end < rowScores.length && end - start < numberOfSeats; end++) {
+                if (rowScores[end] == UNREACHABLE) {
+                    break;
+                }
+                total += rowScores[end];
+                if (end > start && layout.hasAisleAfter(end - 1)) {
+                    total -= AISLE_SPLIT_PENALTY;
+                }
+                runs.add(new Run(start, end, total));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Best possible score for a block starting at startRow: the highest seat scores in the
+     * window, ignoring adjacency and penalties.
+     */
+    private int upperBound(int[][] scores, int startRow, int span, int numberOfSeats) {
+        int[] free = Arrays.stream(scores, startRow, startRow + span)
+                .flatMapToInt(row -> Arrays.stream(row, 1, row.length))
+                .filter(s -> s != UNREACHABLE)
+                .sorted()
+                .toArray();
+        int bound = 0;
+        for (int i = free.length - 1; i >= 0 && i >= free.length - numberOfSeats; i--) {
+            bound += free[i];
+        }
+        return bound;
+    }
+
+    private record Run(int start, int end, int score) {
+        int size() {
+            return end - start + 1;
+        }
+
+        boolean overlaps(Run other) {
+            return start <= other.end && other.start <= end;
+        }
+    }
+
+    private record Block(int startRow, int score, List<Run> runs) {
+    }
+}
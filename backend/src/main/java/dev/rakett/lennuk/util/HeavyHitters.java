@@ -0,0 +1,77 @@
+package dev.rakett.lennuk.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks the k most frequent keys of a stream, given frequency estimates from a sketch.
+ *
+ * Candidates are kept in a concurrent map of at most 2k entries. Keys estimated below the
+ * current admission threshold are rejected without touching the map. When the map overflows,
+ * one thread trims it back to the top k and raises the threshold, while other threads carry
+ * on without waiting.
+ */
+public class HeavyHitters {
+    private final int k;
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private volatile long threshold;
+
+    public HeavyHitters(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+    }
+
+    /**
+    * Offers a key with its current frequency estimate.
+    */
+    public void offer(String key, long estimate) {
+        if (estimate <= threshold && !candidates.containsKey(key)) {
+            return;
+        }
+        candidates.merge(key, estimate, Math::max);
+        if (candidates.size() > 2 * k && trimming.compareAndSet(false, true)) {
+            try {
+                trim();
+            } finally {
+                trimming.set(false);
+            }
+        }
+    }
+
+    /**
+    * @return Up to limit of the most frequent keys with their estimates, most frequent first.
+    */
+    public List<Map.Entry<String, Long>> top(int limit) {
+        return candidates.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.min(limit, k))
+                .toList();
+    }
+
+    public void clear() {
+        candidates.clear();
+        threshold = 0;
+    }
+
+    private void trim() {
+        List<Map.Entry<String, Long>> sorted = candidates.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .toList();
+        if (sorted.size() <= k) {
+            return;
+        }
+        threshold = Math.max(threshold, sorted.get(k - 1).getValue());
+        // Entries updated since the snapshot no longer match and are kept
+        for (Map.Entry<String, Long> entry : sorted.subList(k, sorted.size())) {
+            candidates.remove(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dev.rakett.lennuk.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Mapping of metropolitan area (city) codes to the airports that serve them, e.g. LON to
+ * LGW, LHR, STN, LCY and LTN. Configured through the inventory.metro-areas properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "inventory")
+public class MetroAreas {
+
+    @Getter
+    @Setter
+    private Map<String, List<String>> metroAreas = new HashMap<>();
+
+    private final Map<String, Set<String>> airportsByCity = new HashMap<>();
+    private final Map<String, String> cityByAirport = new HashMap<>();
+
+    @PostConstruct
+    public void index() {
+        metroAreas.forEach((city, airports) -> {
+            String cityCode = normalize(city);
+            Set<String> codes = new LinkedHashSet<>();
+            for (String airport : airports) {
+                String airportCode = normalize(airport);
+                codes.add(airportCode);
+                cityByAirport.put(airportCode, cityCode);
+            }
+            airportsByCity.put(cityCode, Collections.unmodifiableSet(codes));
+        });
+    }
+
+    /**
+    * Expands a city code to the codes it covers: the city itself and its airports.
+    * Any other code is returned on its own.
+    *
+    * @param code An IATA city or airport code.
+    * @return The set of codes a search for the given code should match.
+    */
+    public Set<String> expand(String code) {
+        String normalized = normalize(code);
+        Set<String> airports = airportsByCity.get(normalized);
+        if (airports == null) {
+            return Set.of(normalized);
+        }
+        Set<String> codes = new LinkedHashSet<>(airports);
+        codes.add(normalized);
+        return codes;
+    }
+
+    /**
+    * Resolves the metropolitan area an airport belongs to.
+    *
+    * @param airport An IATA airport code.
+    * @return The city code, or null if the airport is not part of a configured area.
+    */
+    public String cityOf(String airport) {
+        return airport != null ? cityByAirport.get(normalize(airport)) : null;
+    }
+
+    /**
+    * Returns the codes an airport should be indexed under: the airport itself and,
+    * if it belongs to a configured area, the city code of that area.
+    *
+    * @param code An IATA airport code, may be null.
+    * @return The normalized codes to index under, empty for a null code.
+    */
+    public List<String> indexKeys(String code) {
+        if (code == null) {
+            return List.of();
+        }
+        String normalized = normalize(code);
+        String city = cityByAirport.get(normalized);
+        return city != null && !city.equals(normalized) ? List.of(normalized, city) : List.of(normalized);
+    }
+
+    public static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
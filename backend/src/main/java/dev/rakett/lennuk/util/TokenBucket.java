@@ -0,0 +1,57 @@
+package dev.rakett.lennuk.util;
+
+/**
+ * Token bucket holding up to {@code capacity} tokens, refilled continuously at
+ * {@code refillPerSecond}. Each admitted request takes one token.
+ */
+public class TokenBucket {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long lastUsed;
+
+    public TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastUsed = now;
+    }
+
+    /**
+    * Takes a token if one is available.
+    *
+    * @param now Current time from {@link System#nanoTime()}.
+    * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+    */
+    public synchronized long tryConsume(long now) {
+        refill(now);
+        lastUsed = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    /**
+    * A bucket that has not been used for longer than it takes to refill is full, so it can be
+    * discarded and recreated later without changing behaviour.
+    *
+    * @return true if the bucket has not been used for at least {@code idleNanos}.
+    */
+    public synchronized boolean isIdle(long now, long idleNanos) {
+        return now - lastUsed >= idleNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dev.rakett.lennuk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import dev.rakett.lennuk.FlightBookingApplication;
+import dev.rakett.lennuk.dto.BookingRequestDto;
+import dev.rakett.lennuk.entity.Flight;
+import dev.rakett.lennuk.event.OccupancyChangedEvent;
+import dev.rakett.lennuk.repository.FlightRepository;
+
+/**
+ * Runs two application contexts against one shared H2 file database in server mode, as two
+ * cluster instances, and checks that changes written by one are picked up by the other.
+ */
+class ClusterInvalidationServiceTest {
+    private static final String INSERT_CHANGE =
+            "INSERT INTO inventory_changes (flight_id, node_id, created_at) VALUES (?, ?, ?)";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static final OccupancyChanges changesSeenByB = new OccupancyChanges();
+
+    @TempDir
+    static Path databaseDir;
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:h2:file:" + databaseDir.resolve("cluster").toAbsolutePath()
+                + ";AUTO_SERVER=TRUE;MODE=PostgreSQL";
+        nodeA = start("node-a", url, new OccupancyChanges());
+        nodeB = start("node-b", url, changesSeenByB);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @BeforeEach
+    void drainChanges() {
+        nodeB.getBean(ClusterInvalidationService.class).poll();
+        changesSeenByB.flightIds.clear();
+    }
+
+    @Test
+    void bookingOnOneNodeInvalidatesTheFlightOnTheOther() {
+        List<Flight> flights = nodeA.getBean(FlightRepository.class).findAll();
+        assertThat(flights).isNotEmpty();
+        Long flightId = flights.get(0).getId();
+
+        nodeA.getBean(BookingService.class)
+                .bookSeats(flightId, "customer", new BookingRequestDto(List.of("1A"), List.of()));
+        nodeB.getBean(ClusterInvalidationService.class).poll();
+
+        assertThat(changesSeenByB.flightIds).containsExactly(flightId);
+    }
+
+    @Test
+    void changeCommittedAfterAHigherIdIsNotSkipped() throws SQLException {
+        DataSource dataSource = nodeA.getBean(DataSource.class);
+        ClusterInvalidationService invalidation = nodeB.getBean(ClusterInvalidationService.class);
+
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            // Takes the lower ID but commits last
+            insertChange(slow, 101L);
+            try (Connection fast = dataSource.getConnection()) {
+                insertChange(fast, 102L);
+            }
+            invalidation.poll();
+            assertThat(changesSeenByB.flightIds).containsExactly(102L);
+
+            slow.commit();
+        }
+        invalidation.poll();
+        assertThat(changesSeenByB.flightIds).containsExactly(102L, 101L);
+
+        // Each change is applied once, however often the window above the gap is re-read
+        invalidation.poll();
+        assertThat(changesSeenByB.flightIds).containsExactly(102L, 101L);
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId, String url, OccupancyChanges listener) {
+        return new SpringApplicationBuilder(FlightBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .listeners(listener)
+                .run("--spring.profiles.active=cluster",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.devtools.restart.enabled=false",
+                        "--cluster.node-id=" + nodeId,
+                        // Polled by the test only
+                        "--cluster.poll-interval-ms=3600000",
+                        "--cluster.gap-timeout-ms=3600000",
+                        "--inventory.generator.enabled=true",
+                        "--inventory.generator.flights=10",
+                        "--inventory.generator.load-factor-mean=0",
+                        "--inventory.generator.load-factor-stddev=0",
+                        "--AMADEUS_API_KEY=",
+                        "--AMADEUS_API_SECRET=",
+                        "--AMADEUS_API_BASE_URL=http://localhost");
+    }
+
+    private static void insertChange(Connection connection, long flightId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE)) {
+            statement.setLong(1, flightId);
+            statement.setString(2, "node-a");
+            statement.setTimestamp(3, Timestamp.from(Instant.now()));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Collects the flight IDs of the occupancy changes published in one context.
+     */
+    private static final class OccupancyChanges implements ApplicationListener<ApplicationEvent> {
+        private final Queue<Long> flightIds = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            if (event instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof OccupancyChangedEvent changed) {
+                flightIds.addAll(changed.flightIds());
+            }
+        }
+    }
+}